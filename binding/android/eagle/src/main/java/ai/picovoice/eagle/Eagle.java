@@ -13,28 +13,34 @@
 package ai.picovoice.eagle;
 
 import android.content.Context;
-import android.content.res.Resources;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Android binding for Eagle speaker recognition engine.
  */
-public class Eagle {
-
-    private static String defaultModelPath;
+public class Eagle implements AutoCloseable {
 
     static {
         System.loadLibrary("pv_eagle");
     }
 
-    private long handle;
-    private int numSpeakers;
+    private final String modelPath;
+    private final int frameLength;
+    private final int sampleRate;
+    private final FrameBuffer frameBuffer;
+
+    private final AtomicReference<Session> session;
+    private final Object profilesLock = new Object();
 
     /**
      * Constructor.
@@ -48,31 +54,51 @@ public class Eagle {
             String accessKey,
             String modelPath,
             EagleProfile[] speakerProfiles) throws EagleException {
-        long[] profileHandles = new long[speakerProfiles.length];
-
-        for (int i = 0; i < speakerProfiles.length; i++) {
-            profileHandles[i] = speakerProfiles[i].profileNative.handle;
+        this.modelPath = modelPath;
+        EagleProfile[] ownProfiles = copyProfiles(speakerProfiles);
+        try {
+            session = new AtomicReference<>(createSession(accessKey, ownProfiles));
+        } catch (EagleException e) {
+            deleteProfiles(ownProfiles);
+            throw e;
         }
-
-        handle = EagleNative.init(
-                accessKey,
-                modelPath,
-                speakerProfiles.length,
-                profileHandles);
-
-        numSpeakers = speakerProfiles.length;
+        frameLength = EagleNative.getFrameLength();
+        sampleRate = EagleNative.getSampleRate();
+        frameBuffer = new FrameBuffer(frameLength);
     }
 
     /**
-     * Releases resources acquired by Eagle.
+     * Releases resources acquired by Eagle. Safe to call more than once. Instances that are never deleted are
+     * released after they are garbage collected, but explicit deletion frees native memory promptly.
      */
     public void delete() {
-        if (handle != 0) {
-            EagleNative.delete(handle);
-            handle = 0;
+        synchronized (profilesLock) {
+            Session current = session.getAndSet(null);
+            if (current != null) {
+                current.cleanable.clean();
+                deleteProfiles(current.speakerProfiles);
+            }
         }
     }
 
+    /**
+     * Releases resources acquired by Eagle. Equivalent to `.delete()`, for use with try-with-resources.
+     */
+    @Override
+    public void close() {
+        delete();
+    }
+
+    /**
+     * Getter for the number of native objects (Eagle, EagleProfiler and EagleProfile instances) that have not been
+     * released yet. Useful for detecting leaks in long-running processes.
+     *
+     * @return Number of live native objects.
+     */
+    public static int getNumLiveNativeObjects() {
+        return EagleHandle.getNumLive();
+    }
+
     /**
      * Processes a frame of audio and returns a list of similarity scores for each speaker profile.
      *
@@ -84,18 +110,172 @@ public class Eagle {
      * @throws EagleException if there is an error while processing audio frames.
      */
     public float[] process(short[] pcm) throws EagleException {
-        if (handle == 0) {
-            throw new EagleInvalidStateException("Attempted to call eagle process after delete.");
+        Session current = acquireSession("process");
+        try {
+            validateFrame(pcm);
+            return EagleNative.process(current.nativeHandle, pcm, current.numSpeakers);
+        } finally {
+            current.handle.release();
         }
+    }
 
-        if (pcm.length != this.getFrameLength()) {
-            throw new EagleInvalidArgumentException(
-                    String.format("Length of input frame %d does not match required frame length %d",
-                            pcm.length,
-                            this.getSampleRate()));
+    /**
+     * Processes a frame of audio and writes the similarity scores for each speaker profile into `scoresOut`.
+     * Intended for streaming use, where the same output array is reused for every frame. The native layer still
+     * returns a new scores array for every frame, which is copied into `scoresOut`.
+     *
+     * @param pcm A frame of audio samples. The number of samples per frame can be attained by calling
+     *            `.getFrameLength()`. The incoming audio needs to have a sample rate equal
+     *            to `.getSampleRate()` and be 16-bit linearly-encoded. Eagle operates on single-channel audio.
+     * @param scoresOut Array that receives the similarity scores. Its length must be at least `.getNumSpeakers()`,
+     *                  which changes when speaker profiles are added or removed.
+     * @throws EagleException if there is an error while processing audio frames.
+     */
+    public void process(short[] pcm, float[] scoresOut) throws EagleException {
+        Session current = acquireSession("process");
+        try {
+            validateFrame(pcm);
+            validateScores(scoresOut, current.numSpeakers);
+
+            float[] scores = EagleNative.process(current.nativeHandle, pcm, current.numSpeakers);
+            System.arraycopy(scores, 0, scoresOut, 0, current.numSpeakers);
+        } finally {
+            current.handle.release();
+        }
+    }
+
+    /**
+     * Processes a frame of audio held in a `ShortBuffer` and writes the similarity scores for each speaker
+     * profile into `scoresOut`. Samples are read with absolute gets, so the position of the buffer is not changed.
+     * Both direct and heap buffers are accepted. The frame is copied into a buffer owned by the calling thread, so
+     * this is safe to call from several threads at once.
+     *
+     * @param pcm Buffer holding at least `.getFrameLength()` samples starting at `offset`. The incoming audio needs
+     *            to have a sample rate equal to `.getSampleRate()` and be 16-bit linearly-encoded.
+     * @param offset Index of the first sample of the frame within `pcm`.
+     * @param scoresOut Array that receives the similarity scores. Its length must be at least `.getNumSpeakers()`.
+     * @throws EagleException if there is an error while processing audio frames.
+     */
+    public void process(ShortBuffer pcm, int offset, float[] scoresOut) throws EagleException {
+        if (pcm == null) {
+            throw new EagleInvalidArgumentException("Passed null buffer to Eagle process.");
+        }
+        validateBufferRange(offset, pcm.limit(), 1);
+
+        short[] frame = frameBuffer.get();
+        for (int i = 0; i < frameLength; i++) {
+            frame[i] = pcm.get(offset + i);
+        }
+        process(frame, scoresOut);
+    }
+
+    /**
+     * Processes a frame of audio held in a `ByteBuffer` and writes the similarity scores for each speaker
+     * profile into `scoresOut`. Samples are decoded using the byte order of `pcm` (e.g. set it to
+     * `ByteOrder.nativeOrder()` for buffers filled by `AudioRecord`). The position of the buffer is not changed.
+     * The frame is copied into a buffer owned by the calling thread, so this is safe to call from several threads at
+     * once.
+     *
+     * @param pcm Buffer holding at least `.getFrameLength()` 16-bit samples starting at byte `offset`. The incoming
+     *            audio needs to have a sample rate equal to `.getSampleRate()` and be 16-bit linearly-encoded.
+     * @param offset Byte index of the first sample of the frame within `pcm`.
+     * @param scoresOut Array that receives the similarity scores. Its length must be at least `.getNumSpeakers()`.
+     * @throws EagleException if there is an error while processing audio frames.
+     */
+    public void process(ByteBuffer pcm, int offset, float[] scoresOut) throws EagleException {
+        if (pcm == null) {
+            throw new EagleInvalidArgumentException("Passed null buffer to Eagle process.");
+        }
+        validateBufferRange(offset, pcm.limit(), 2);
+
+        short[] frame = frameBuffer.get();
+        for (int i = 0; i < frameLength; i++) {
+            frame[i] = pcm.getShort(offset + (i * 2));
         }
+        process(frame, scoresOut);
+    }
+
+    /**
+     * Processes consecutive frames of audio in a single call and writes the similarity scores of every frame into
+     * `scoresOut` as a flattened `[numFrames x numSpeakers]` matrix, i.e. the score of speaker `j` for frame `i` is
+     * stored at index `i * getNumSpeakers() + j`. This is a convenience loop over the frames: the native engine has
+     * no batch entry point, so every frame is copied into a frame buffer owned by the calling thread and processed on
+     * its own, at the same cost as calling `.process()` once per frame.
+     *
+     * @param pcm Audio samples. The frames are read from `pcm[offset]` onwards, `.getFrameLength()` samples each.
+     *            The incoming audio needs to have a sample rate equal to `.getSampleRate()` and be 16-bit
+     *            linearly-encoded.
+     * @param offset Index of the first sample of the first frame within `pcm`.
+     * @param numFrames Number of frames to process.
+     * @param scoresOut Array that receives the scores. Its length must be at least `numFrames * .getNumSpeakers()`.
+     * @throws EagleException if there is an error while processing audio frames.
+     */
+    public void processFrames(short[] pcm, int offset, int numFrames, float[] scoresOut) throws EagleException {
+        Session current = acquireSession("process");
+        try {
+            final int numSpeakers = current.numSpeakers;
+            if (pcm == null) {
+                throw new EagleInvalidArgumentException("Passed null audio to Eagle process.");
+            }
 
-        return EagleNative.process(handle, pcm, numSpeakers);
+            if (offset < 0 || numFrames < 0 || (long) numFrames * frameLength > pcm.length - offset) {
+                throw new EagleInvalidArgumentException(
+                        String.format("Input of length %d does not hold %d frames of %d samples at offset %d",
+                                pcm.length,
+                                numFrames,
+                                frameLength,
+                                offset));
+            }
+            validateScores(scoresOut, (long) numFrames * numSpeakers);
+
+            short[] frame = frameBuffer.get();
+            for (int i = 0; i < numFrames; i++) {
+                System.arraycopy(pcm, offset + (i * frameLength), frame, 0, frameLength);
+                float[] scores = EagleNative.process(current.nativeHandle, frame, numSpeakers);
+                System.arraycopy(scores, 0, scoresOut, i * numSpeakers, numSpeakers);
+            }
+        } finally {
+            current.handle.release();
+        }
+    }
+
+    /**
+     * Processes given audio data and returns only the `k` best-scoring speakers whose score is at least `minScore`,
+     * ordered by descending score. Selection uses a bounded heap, so it costs `O(numSpeakers * log(k))` and does not
+     * box scores. Passing the result of the previous call as `reuse` avoids allocating a result per frame.
+     *
+     * @param pcm A frame of audio samples. The number of samples per frame can be attained by calling
+     *            `.getFrameLength()`. The incoming audio needs to have a sample rate equal to `.getSampleRate()` and
+     *            be 16-bit linearly-encoded.
+     * @param k Maximum number of speakers to return.
+     * @param minScore Minimum score for a speaker to be returned.
+     * @param reuse A result to overwrite, or `null`. It is only reused if its capacity is at least `k`.
+     * @return The best-scoring speakers. This is `reuse` whenever it could be reused.
+     * @throws EagleException if there is an error while processing audio frames.
+     */
+    public EagleTopKResult processTopK(
+            short[] pcm,
+            int k,
+            float minScore,
+            EagleTopKResult reuse) throws EagleException {
+        if (k < 1) {
+            throw new EagleInvalidArgumentException("Number of speakers to return must be at least 1");
+        }
+
+        Session current = acquireSession("process");
+        try {
+            validateFrame(pcm);
+            float[] scores = EagleNative.process(current.nativeHandle, pcm, current.numSpeakers);
+
+            EagleTopKResult result = reuse;
+            if (result == null || result.getCapacity() < k) {
+                result = new EagleTopKResult(k);
+            }
+            result.select(scores, current.numSpeakers, k, minScore);
+            return result;
+        } finally {
+            current.handle.release();
+        }
     }
 
     /**
@@ -105,11 +285,111 @@ public class Eagle {
      * @throws EagleException if there is an error while resetting Eagle.
      */
     public void reset() throws EagleException {
-        if (handle == 0) {
-            throw new EagleInvalidStateException("Attempted to call eagle reset after delete.");
+        Session current = acquireSession("reset");
+        try {
+            EagleNative.reset(current.nativeHandle);
+        } finally {
+            current.handle.release();
+        }
+    }
+
+    /**
+     * Runs synthetic audio through the engine so that the first real frame does not pay one-time costs such as
+     * lazy allocations and cold caches, then resets the internal state. Call it before taking live traffic.
+     *
+     * @param numFrames Number of synthetic frames to process.
+     * @throws EagleException if there is an error while processing or resetting.
+     */
+    public void warmUp(int numFrames) throws EagleException {
+        if (numFrames < 1) {
+            throw new EagleInvalidArgumentException("Number of warm-up frames must be at least 1");
         }
 
-        EagleNative.reset(handle);
+        short[] frame = new short[frameLength];
+        fillWarmUpAudio(frame);
+        for (int i = 0; i < numFrames; i++) {
+            process(frame);
+        }
+        reset();
+    }
+
+    /**
+     * Adds a speaker profile. The native engine cannot change its profile set in place, so this re-initializes a new
+     * native instance with the extended profile set on the calling thread, off the processing path: other threads
+     * keep processing with the current instance until the new one replaces it atomically at a frame boundary. State
+     * is reset, as if `.reset()` had been called. The score of the added speaker is the last element of the score
+     * arrays from then on.
+     *
+     * @param accessKey AccessKey obtained from Picovoice Console, needed to initialize the new native instance. Eagle
+     *                  does not keep it after the call returns.
+     * @param speakerProfile The speaker profile to add. Eagle keeps its own copy, so the caller may delete it.
+     * @throws EagleException if there is an error while initializing the new profile set.
+     */
+    public void addProfile(String accessKey, EagleProfile speakerProfile) throws EagleException {
+        validateAccessKey(accessKey, "addProfile");
+        if (speakerProfile == null) {
+            throw new EagleInvalidArgumentException("Passed null speaker profile to Eagle addProfile.");
+        }
+
+        synchronized (profilesLock) {
+            Session current = currentSession("add profile");
+            EagleProfile ownProfile = copyProfile(speakerProfile);
+            try {
+                EagleProfile[] speakerProfiles = Arrays.copyOf(current.speakerProfiles, current.numSpeakers + 1);
+                speakerProfiles[current.numSpeakers] = ownProfile;
+                swapSession(accessKey, current, speakerProfiles);
+            } catch (EagleException e) {
+                ownProfile.delete();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Removes a speaker profile. Like `.addProfile()`, this re-initializes a new native instance off the processing
+     * path and state is reset. The scores of the speakers after `index` move down by one position.
+     *
+     * @param accessKey AccessKey obtained from Picovoice Console, needed to initialize the new native instance. Eagle
+     *                  does not keep it after the call returns.
+     * @param index Index of the speaker profile within the score arrays.
+     * @throws EagleException if the index is invalid, the profile is the last one, or there is an error while
+     *                        initializing the new profile set.
+     */
+    public void removeProfile(String accessKey, int index) throws EagleException {
+        validateAccessKey(accessKey, "removeProfile");
+
+        synchronized (profilesLock) {
+            Session current = currentSession("remove profile");
+            if (index < 0 || index >= current.numSpeakers) {
+                throw new EagleInvalidArgumentException(
+                        String.format("Speaker index %d is out of range [0, %d)", index, current.numSpeakers));
+            }
+
+            if (current.numSpeakers == 1) {
+                throw new EagleInvalidArgumentException("Cannot remove the last speaker profile from Eagle");
+            }
+
+            EagleProfile[] speakerProfiles = new EagleProfile[current.numSpeakers - 1];
+            System.arraycopy(current.speakerProfiles, 0, speakerProfiles, 0, index);
+            System.arraycopy(
+                    current.speakerProfiles,
+                    index + 1,
+                    speakerProfiles,
+                    index,
+                    current.numSpeakers - index - 1);
+            swapSession(accessKey, current, speakerProfiles);
+            current.speakerProfiles[index].delete();
+        }
+    }
+
+    /**
+     * Getter for the number of speaker profiles Eagle currently scores against.
+     *
+     * @return Number of speaker profiles, which is also the number of scores produced per frame.
+     */
+    public int getNumSpeakers() {
+        Session current = session.get();
+        return (current != null) ? current.numSpeakers : 0;
     }
 
     /**
@@ -127,7 +407,7 @@ public class Eagle {
      * @return Number of audio samples per frame.
      */
     public int getFrameLength() {
-        return EagleNative.getFrameLength();
+        return frameLength;
     }
 
     /**
@@ -136,7 +416,224 @@ public class Eagle {
      * @return Audio sample rate accepted by Picovoice.
      */
     public int getSampleRate() {
-        return EagleNative.getSampleRate();
+        return sampleRate;
+    }
+
+    /**
+     * Fills a buffer with deterministic low-level noise used to warm up the engines.
+     */
+    static void fillWarmUpAudio(short[] pcm) {
+        int seed = 0x2545f491;
+        for (int i = 0; i < pcm.length; i++) {
+            seed = (seed * 1103515245) + 12345;
+            pcm[i] = (short) (seed >> 22);
+        }
+    }
+
+    /**
+     * Processes a frame into `scores`, replacing the array with one of the right length if the number of speakers
+     * changed. Used by streaming helpers that must keep working across profile changes.
+     */
+    float[] processReusing(short[] pcm, float[] scores) throws EagleException {
+        Session current = acquireSession("process");
+        try {
+            validateFrame(pcm);
+            if (scores == null || scores.length != current.numSpeakers) {
+                scores = new float[current.numSpeakers];
+            }
+
+            float[] nativeScores = EagleNative.process(current.nativeHandle, pcm, current.numSpeakers);
+            System.arraycopy(nativeScores, 0, scores, 0, current.numSpeakers);
+            return scores;
+        } finally {
+            current.handle.release();
+        }
+    }
+
+    private Session createSession(String accessKey, EagleProfile[] speakerProfiles) throws EagleException {
+        long[] profileHandles = new long[speakerProfiles.length];
+        int numAcquired = 0;
+        try {
+            for (; numAcquired < speakerProfiles.length; numAcquired++) {
+                profileHandles[numAcquired] = speakerProfiles[numAcquired].profileNative.handle.acquire();
+                if (profileHandles[numAcquired] == 0) {
+                    throw new EagleInvalidArgumentException(
+                            "Attempted to initialize eagle with a deleted speaker profile.");
+                }
+            }
+
+            long nativeHandle = EagleNative.init(
+                    accessKey,
+                    modelPath,
+                    speakerProfiles.length,
+                    profileHandles);
+            return new Session(nativeHandle, this, speakerProfiles);
+        } finally {
+            for (int i = 0; i < numAcquired; i++) {
+                speakerProfiles[i].profileNative.handle.release();
+            }
+        }
+    }
+
+    private void swapSession(
+            String accessKey,
+            Session current,
+            EagleProfile[] speakerProfiles) throws EagleException {
+        Session next = createSession(accessKey, speakerProfiles);
+        if (session.compareAndSet(current, next)) {
+            current.cleanable.clean();
+        } else {
+            next.cleanable.clean();
+            throw new EagleInvalidStateException("Attempted to change eagle speaker profiles after delete.");
+        }
+    }
+
+    private static EagleProfile[] copyProfiles(EagleProfile[] speakerProfiles) throws EagleException {
+        EagleProfile[] copies = new EagleProfile[speakerProfiles.length];
+        try {
+            for (int i = 0; i < speakerProfiles.length; i++) {
+                copies[i] = copyProfile(speakerProfiles[i]);
+            }
+        } catch (EagleException e) {
+            deleteProfiles(copies);
+            throw e;
+        }
+        return copies;
+    }
+
+    /**
+     * Copies a speaker profile into one owned by Eagle, so that the profile set can be re-initialized later even if
+     * the caller has deleted its own profiles.
+     */
+    private static EagleProfile copyProfile(EagleProfile speakerProfile) throws EagleException {
+        if (speakerProfile == null) {
+            throw new EagleInvalidArgumentException("Passed null speaker profile to Eagle.");
+        }
+
+        try {
+            return new EagleProfile(new EagleProfileNative(speakerProfile.profileNative.getBytes()));
+        } catch (IllegalStateException e) {
+            throw new EagleInvalidArgumentException("Attempted to initialize eagle with a deleted speaker profile.");
+        }
+    }
+
+    private static void deleteProfiles(EagleProfile[] speakerProfiles) {
+        for (EagleProfile speakerProfile : speakerProfiles) {
+            if (speakerProfile != null) {
+                speakerProfile.delete();
+            }
+        }
+    }
+
+    private static void validateAccessKey(String accessKey, String method) throws EagleException {
+        if (accessKey == null || accessKey.equals("")) {
+            throw new EagleInvalidArgumentException(
+                    String.format("No AccessKey was provided to Eagle %s", method));
+        }
+    }
+
+    private Session currentSession(String method) throws EagleException {
+        Session current = session.get();
+        if (current == null) {
+            throw new EagleInvalidStateException(
+                    String.format("Attempted to call eagle %s after delete.", method));
+        }
+        return current;
+    }
+
+    private Session acquireSession(String method) throws EagleException {
+        while (true) {
+            Session current = currentSession(method);
+            if (current.handle.acquire() != 0) {
+                return current;
+            }
+
+            if (session.get() == current) {
+                throw new EagleInvalidStateException(
+                        String.format("Attempted to call eagle %s after delete.", method));
+            }
+            // the profile set was swapped between reading and acquiring the session, retry with the new one
+        }
+    }
+
+    private void validateFrame(short[] pcm) throws EagleException {
+        if (pcm == null) {
+            throw new EagleInvalidArgumentException("Passed null frame to Eagle process.");
+        }
+
+        if (pcm.length != frameLength) {
+            throw new EagleInvalidArgumentException(
+                    String.format("Length of input frame %d does not match required frame length %d",
+                            pcm.length,
+                            frameLength));
+        }
+    }
+
+    private void validateBufferRange(int offset, int limit, int elementsPerSample) throws EagleException {
+        if (offset < 0 || (limit - offset) / elementsPerSample < frameLength) {
+            throw new EagleInvalidArgumentException(
+                    String.format("Buffer does not hold a frame of %d samples at offset %d",
+                            frameLength,
+                            offset));
+        }
+    }
+
+    private static void validateScores(float[] scoresOut, long numScores) throws EagleException {
+        if (scoresOut == null || scoresOut.length < numScores) {
+            throw new EagleInvalidArgumentException(
+                    String.format("Scores array must hold at least %d elements", numScores));
+        }
+    }
+
+    /**
+     * A native Eagle instance together with the profile set it was initialized with. Replaced as a whole when the
+     * profile set changes. The profiles are Eagle's own copies and may be shared with the session that replaces it.
+     */
+    private static final class Session {
+
+        final long nativeHandle;
+        final EagleHandle handle;
+        final EagleCleaner.Cleanable cleanable;
+        final EagleProfile[] speakerProfiles;
+        final int numSpeakers;
+
+        Session(long nativeHandle, Eagle owner, EagleProfile[] speakerProfiles) {
+            this.nativeHandle = nativeHandle;
+            this.handle = new Handle(nativeHandle);
+            this.cleanable = EagleCleaner.register(owner, handle);
+            this.speakerProfiles = speakerProfiles;
+            this.numSpeakers = speakerProfiles.length;
+        }
+    }
+
+    /**
+     * Frame-sized buffer owned by each calling thread, used by the overloads that have to copy a frame out of the
+     * caller's audio. It does not reference the `Eagle` instance, so it does not keep it reachable.
+     */
+    private static final class FrameBuffer extends ThreadLocal<short[]> {
+
+        private final int frameLength;
+
+        FrameBuffer(int frameLength) {
+            this.frameLength = frameLength;
+        }
+
+        @Override
+        protected short[] initialValue() {
+            return new short[frameLength];
+        }
+    }
+
+    private static final class Handle extends EagleHandle {
+
+        Handle(long handle) {
+            super(handle);
+        }
+
+        @Override
+        void free(long handle) {
+            EagleNative.delete(handle);
+        }
     }
 
     /**
@@ -144,6 +641,8 @@ public class Eagle {
      */
     public static class Builder {
 
+        private static String defaultModelPath;
+
         private String accessKey = null;
         private String modelPath = null;
 
@@ -169,36 +668,22 @@ public class Eagle {
             return this;
         }
 
-        private static void extractPackageResources(Context context) throws EagleIOException {
-            final Resources resources = context.getResources();
+        private Builder copy() {
+            Builder builder = new Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(modelPath);
+            builder.speakerProfiles = (speakerProfiles != null) ? speakerProfiles.clone() : null;
+            return builder;
+        }
 
+        private static void extractPackageResources(Context context) throws EagleIOException {
             try {
-                defaultModelPath = extractResource(context,
-                        resources.openRawResource(R.raw.eagle_params),
-                        resources.getResourceEntryName(R.raw.eagle_params) + ".pv");
+                defaultModelPath = EagleModelCache.extractRawResource(context, R.raw.eagle_params);
             } catch (IOException ex) {
                 throw new EagleIOException(ex);
             }
         }
 
-        private static String extractResource(
-                Context context,
-                InputStream srcFileStream,
-                String dstFilename
-        ) throws IOException {
-            InputStream is = new BufferedInputStream(srcFileStream, 256);
-            OutputStream os = new BufferedOutputStream(context.openFileOutput(dstFilename, Context.MODE_PRIVATE), 256);
-            int r;
-            while ((r = is.read()) != -1) {
-                os.write(r);
-            }
-            os.flush();
-
-            is.close();
-            os.close();
-            return new File(context.getFilesDir(), dstFilename).getAbsolutePath();
-        }
-
         /**
          * Validates properties and creates an instance of the Eagle speaker recognition engine.
          *
@@ -207,10 +692,62 @@ public class Eagle {
          * @throws EagleException if there is an error while initializing Eagle.
          */
         public Eagle build(Context context) throws EagleException {
+            return buildWithProgress(context, null);
+        }
+
+        /**
+         * Creates an instance of the Eagle speaker recognition engine on the given executor. Model extraction,
+         * native library loading and engine initialization all run on the executor, so the calling thread is never
+         * blocked.
+         * The builder's properties are captured when this method is called.
+         *
+         * @param context Android app context (for extracting Eagle resources)
+         * @param executor Executor that runs the build.
+         * @return A Future that completes with the new instance. If the build fails, `Future.get()` throws an
+         *         `ExecutionException` whose cause is the `EagleException`.
+         */
+        public Future<Eagle> buildAsync(Context context, Executor executor) {
+            return buildAsync(context, executor, null);
+        }
+
+        /**
+         * Creates an instance of the Eagle speaker recognition engine on the given executor, reporting each build
+         * stage to a callback.
+         * The builder's properties are captured when this method is called.
+         *
+         * @param context Android app context (for extracting Eagle resources)
+         * @param executor Executor that runs the build.
+         * @param progressCallback Optional callback that is notified as each `EagleBuildStage` starts.
+         * @return A Future that completes with the new instance. If the build fails, `Future.get()` throws an
+         *         `ExecutionException` whose cause is the `EagleException`.
+         */
+        public Future<Eagle> buildAsync(
+                final Context context,
+                Executor executor,
+                final EagleBuildProgressCallback progressCallback) {
+            if (executor == null) {
+                throw new IllegalArgumentException("No executor was provided to buildAsync");
+            }
+
+            final Builder snapshot = copy();
+            FutureTask<Eagle> task = new FutureTask<>(new Callable<Eagle>() {
+                @Override
+                public Eagle call() throws EagleException {
+                    return snapshot.buildWithProgress(context, progressCallback);
+                }
+            });
+            executor.execute(task);
+            return task;
+        }
+
+        private Eagle buildWithProgress(
+                Context context,
+                EagleBuildProgressCallback progressCallback) throws EagleException {
             if (accessKey == null || this.accessKey.equals("")) {
                 throw new EagleInvalidArgumentException("No AccessKey was provided to Eagle");
             }
 
+            notifyStage(progressCallback, EagleBuildStage.EXTRACT);
             if (modelPath == null) {
                 if (defaultModelPath == null) {
                     extractPackageResources(context);
@@ -221,8 +758,8 @@ public class Eagle {
                 String modelFilename = modelFile.getName();
                 if (!modelFile.exists() && !modelFilename.equals("")) {
                     try {
-                        modelPath = extractResource(context,
-                                context.getAssets().open(modelPath),
+                        modelPath = EagleModelCache.extractAsset(context,
+                                modelPath,
                                 modelFilename);
                     } catch (IOException ex) {
                         throw new EagleIOException(ex);
@@ -234,8 +771,18 @@ public class Eagle {
                 throw new EagleInvalidArgumentException("No speaker profiles provided to Eagle");
             }
 
+            notifyStage(progressCallback, EagleBuildStage.LOAD);
+            System.loadLibrary("pv_eagle");
+
+            notifyStage(progressCallback, EagleBuildStage.INIT);
             return new Eagle(accessKey, modelPath, speakerProfiles);
         }
+
+        private static void notifyStage(EagleBuildProgressCallback progressCallback, EagleBuildStage stage) {
+            if (progressCallback != null) {
+                progressCallback.onStage(stage);
+            }
+        }
     }
 
 }
@@ -0,0 +1,318 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only access to the samples of a 16-bit PCM WAV file or a headerless raw PCM file through a memory mapping.
+ * The RIFF chunks of WAV files are walked to find the format and data chunks, so files with extra chunks (e.g.
+ * `LIST`) or an extensible format header are read correctly. Samples are exposed as `ShortBuffer` views of the mapping
+ * and can be passed straight to `Eagle.process(ShortBuffer, int, float[])`. Reading a long file neither loads it into
+ * the heap nor copies it. Multi-channel samples are interleaved. The data of a file cannot exceed 2 GB.
+ */
+public class EagleAudioFile implements Closeable {
+
+    private static final int WAVE_FORMAT_PCM = 1;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+
+    private final RandomAccessFile raf;
+    private final ShortBuffer samples;
+    private final int sampleRate;
+    private final int numChannels;
+    private final long numSamples;
+
+    private EagleAudioFile(
+            RandomAccessFile raf,
+            long dataOffset,
+            long dataSize,
+            int sampleRate,
+            int numChannels) throws IOException {
+        int numValues = (int) ((dataSize / 2 / numChannels) * numChannels);
+        ByteBuffer mapping = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, dataOffset, numValues * 2L);
+
+        this.raf = raf;
+        this.samples = mapping.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        this.sampleRate = sampleRate;
+        this.numChannels = numChannels;
+        this.numSamples = numValues / numChannels;
+    }
+
+    /**
+     * Opens a WAV file. Only 16-bit linearly-encoded PCM is supported.
+     *
+     * @param file The WAV file.
+     * @return The opened audio file.
+     * @throws EagleException if the file cannot be read or is not a 16-bit PCM WAV file.
+     */
+    public static EagleAudioFile open(File file) throws EagleException {
+        if (file == null) {
+            throw new EagleInvalidArgumentException("No file was provided to EagleAudioFile");
+        }
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            EagleAudioFile audioFile = parseWav(raf);
+            raf = null;
+            return audioFile;
+        } catch (IOException e) {
+            throw new EagleIOException(e);
+        } finally {
+            closeQuietly(raf);
+        }
+    }
+
+    /**
+     * Opens a headerless file of 16-bit little-endian PCM samples.
+     *
+     * @param file The raw PCM file.
+     * @param sampleRate Sample rate of the audio.
+     * @param numChannels Number of interleaved channels.
+     * @return The opened audio file.
+     * @throws EagleException if the arguments are invalid or the file cannot be read.
+     */
+    public static EagleAudioFile openRaw(File file, int sampleRate, int numChannels) throws EagleException {
+        if (file == null) {
+            throw new EagleInvalidArgumentException("No file was provided to EagleAudioFile");
+        }
+
+        if (sampleRate < 1 || numChannels < 1) {
+            throw new EagleInvalidArgumentException("Sample rate and number of channels must be at least 1");
+        }
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            checkDataSize(raf.length());
+            EagleAudioFile audioFile = new EagleAudioFile(raf, 0, raf.length(), sampleRate, numChannels);
+            raf = null;
+            return audioFile;
+        } catch (IOException e) {
+            throw new EagleIOException(e);
+        } finally {
+            closeQuietly(raf);
+        }
+    }
+
+    /**
+     * Closes the file. Views obtained before remain readable until they are garbage collected, since Java offers no
+     * way to unmap a file explicitly.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        raf.close();
+    }
+
+    /**
+     * Getter for the sample rate of the audio.
+     *
+     * @return Sample rate in Hz.
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Getter for the number of interleaved channels.
+     *
+     * @return Number of channels.
+     */
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    /**
+     * Getter for the length of the audio.
+     *
+     * @return Number of samples per channel.
+     */
+    public long getNumSamples() {
+        return numSamples;
+    }
+
+    /**
+     * Getter for the number of complete frames of the given length. A trailing partial frame is not counted.
+     *
+     * @param frameLength Number of samples per channel in a frame, e.g. `Eagle.getFrameLength()`.
+     * @return Number of complete frames.
+     */
+    public long getNumFrames(int frameLength) {
+        if (frameLength < 1) {
+            throw new IllegalArgumentException("Frame length must be at least 1");
+        }
+        return numSamples / frameLength;
+    }
+
+    /**
+     * Getter for all samples of the file.
+     *
+     * @return A read-only view of the interleaved samples, positioned at the start.
+     */
+    public ShortBuffer getSamples() {
+        return samples.duplicate();
+    }
+
+    /**
+     * Getter for a frame of samples.
+     *
+     * @param frameIndex Index of the frame.
+     * @param frameLength Number of samples per channel in a frame, e.g. `Eagle.getFrameLength()`.
+     * @return A read-only view of the `frameLength * getNumChannels()` interleaved samples of the frame.
+     */
+    public ShortBuffer getFrame(long frameIndex, int frameLength) {
+        if (frameIndex < 0 || frameIndex >= getNumFrames(frameLength)) {
+            throw new IndexOutOfBoundsException(String.format("Frame %d is out of range", frameIndex));
+        }
+
+        ShortBuffer frame = samples.duplicate();
+        int start = (int) (frameIndex * frameLength * numChannels);
+        frame.position(start);
+        frame.limit(start + (frameLength * numChannels));
+        return frame.slice();
+    }
+
+    /**
+     * Copies samples into an array.
+     *
+     * @param sampleIndex Index of the first sample per channel to copy.
+     * @param dst Array that receives `numSamples * getNumChannels()` interleaved samples.
+     * @param offset Index in `dst` of the first copied sample.
+     * @param numSamples Number of samples per channel to copy.
+     * @return Number of samples per channel copied, which is less than `numSamples` at the end of the file.
+     */
+    public int read(long sampleIndex, short[] dst, int offset, int numSamples) {
+        if (sampleIndex < 0 || numSamples < 0) {
+            throw new IndexOutOfBoundsException("Sample index and number of samples cannot be negative");
+        }
+
+        int numCopied = (int) Math.max(0, Math.min(numSamples, this.numSamples - sampleIndex));
+        if (numCopied == 0) {
+            // also covers `sampleIndex` past the end, which is not a valid buffer position
+            return 0;
+        }
+
+        ShortBuffer source = samples.duplicate();
+        source.position((int) (sampleIndex * numChannels));
+        source.get(dst, offset, numCopied * numChannels);
+        return numCopied;
+    }
+
+    private static EagleAudioFile parseWav(RandomAccessFile raf) throws IOException, EagleException {
+        FileChannel channel = raf.getChannel();
+        long fileSize = channel.size();
+
+        ByteBuffer header = ByteBuffer.allocate(40).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header, 0, 12);
+        if (header.getInt(0) != fourCc("RIFF") || header.getInt(8) != fourCc("WAVE")) {
+            throw new EagleInvalidArgumentException("File is not a WAV file");
+        }
+
+        int format = -1;
+        int numChannels = 0;
+        int sampleRate = 0;
+        int bitsPerSample = 0;
+        long dataOffset = -1;
+        long dataSize = 0;
+
+        long position = 12;
+        while (position + 8 <= fileSize && (format == -1 || dataOffset == -1)) {
+            readFully(channel, header, position, 8);
+            int chunkId = header.getInt(0);
+            long chunkSize = header.getInt(4) & 0xFFFFFFFFL;
+            long chunkOffset = position + 8;
+
+            if (chunkId == fourCc("fmt ")) {
+                if (chunkSize < 16) {
+                    throw new EagleInvalidArgumentException("WAV format chunk is too short");
+                }
+                readFully(channel, header, chunkOffset, (int) Math.min(chunkSize, header.capacity()));
+                format = header.getShort(0) & 0xFFFF;
+                numChannels = header.getShort(2) & 0xFFFF;
+                sampleRate = header.getInt(4);
+                bitsPerSample = header.getShort(14) & 0xFFFF;
+                if (format == WAVE_FORMAT_EXTENSIBLE && chunkSize >= 26) {
+                    // the sub-format GUID starts with the actual format code
+                    format = header.getShort(24) & 0xFFFF;
+                }
+            } else if (chunkId == fourCc("data")) {
+                dataOffset = chunkOffset;
+                // writers that stream to disk may leave the size at 0 or at its maximum, use the rest of the file
+                long available = fileSize - chunkOffset;
+                dataSize = (chunkSize == 0 || chunkSize > available) ? available : chunkSize;
+            }
+            position = chunkOffset + chunkSize + (chunkSize & 1);
+        }
+
+        if (format == -1 || dataOffset == -1) {
+            throw new EagleInvalidArgumentException("WAV file has no format or data chunk");
+        }
+
+        if (format != WAVE_FORMAT_PCM || bitsPerSample != 16) {
+            throw new EagleInvalidArgumentException("WAV file must contain 16-bit linearly-encoded PCM");
+        }
+
+        if (numChannels < 1 || sampleRate < 1) {
+            throw new EagleInvalidArgumentException("WAV file has an invalid number of channels or sample rate");
+        }
+
+        checkDataSize(dataSize);
+        return new EagleAudioFile(raf, dataOffset, dataSize, sampleRate, numChannels);
+    }
+
+    private static void checkDataSize(long dataSize) throws EagleException {
+        if (dataSize > Integer.MAX_VALUE) {
+            throw new EagleInvalidArgumentException("Audio data larger than 2 GB is not supported");
+        }
+    }
+
+    private static void readFully(
+            FileChannel channel,
+            ByteBuffer buffer,
+            long position,
+            int length) throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            int numRead = channel.read(buffer, position + buffer.position());
+            if (numRead < 0) {
+                throw new EOFException("Unexpected end of WAV file");
+            }
+        }
+    }
+
+    private static int fourCc(String id) {
+        return (id.charAt(0)) | (id.charAt(1) << 8) | (id.charAt(2) << 16) | (id.charAt(3) << 24);
+    }
+
+    private static void closeQuietly(RandomAccessFile raf) {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException ignored) {
+                // nothing to recover from when closing
+            }
+        }
+    }
+}
@@ -0,0 +1,452 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import android.os.Process;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs capture and inference on two dedicated threads. The capture thread reads frames from an `EagleAudioSource`
+ * into a preallocated lock-free frame queue, and the inference thread runs `Eagle.process()` on the queued frames and
+ * delivers the scores to an `EagleStreamCallback`. A slow inference step therefore never delays the next read from
+ * the source. The inference thread copies each frame out of the queue before processing it, so the frame in flight
+ * never holds a queue slot. When the queue is full, the configured `EagleBackpressure` decides what happens. The only
+ * allocation per frame is the scores array that the native layer returns. The pipeline does not take ownership of
+ * the `Eagle` instance or the source.
+ */
+public class EagleAudioPipeline {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Engine engine;
+    private final EagleAudioSource source;
+    private final EagleStreamCallback callback;
+    private final EagleBackpressure backpressure;
+    private final EagleFrameRing ring;
+    private final short[] captureFrame;
+    private final short[] inferenceFrame;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    private Thread captureThread;
+    private Thread inferenceThread;
+    private volatile boolean isStopping = false;
+    private volatile boolean isCaptureDone = false;
+    private volatile boolean isCaptureWaiting = false;
+    private volatile boolean isInferenceWaiting = false;
+
+    private volatile long numCapturedFrames = 0;
+    private volatile long numProcessedFrames = 0;
+    private volatile long numDroppedFrames = 0;
+    private volatile long numOverruns = 0;
+
+    private EagleAudioPipeline(
+            Engine engine,
+            EagleAudioSource source,
+            EagleStreamCallback callback,
+            EagleBackpressure backpressure,
+            int queueCapacity) {
+        this.engine = engine;
+        this.source = source;
+        this.callback = callback;
+        this.backpressure = backpressure;
+        this.ring = new EagleFrameRing(queueCapacity, engine.getFrameLength());
+        this.captureFrame = new short[engine.getFrameLength()];
+        this.inferenceFrame = new short[engine.getFrameLength()];
+    }
+
+    /**
+     * Starts the source and the capture and inference threads.
+     *
+     * @throws EagleException if the pipeline was already started or the source cannot be started.
+     */
+    public synchronized void start() throws EagleException {
+        if (captureThread != null) {
+            throw new EagleInvalidStateException("EagleAudioPipeline can only be started once.");
+        }
+
+        source.start();
+        inferenceThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runInference();
+            }
+        }, "EagleInference");
+        captureThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runCapture();
+            }
+        }, "EagleCapture");
+        inferenceThread.start();
+        captureThread.start();
+    }
+
+    /**
+     * Stops the source and both threads. Frames still queued are discarded.
+     *
+     * @throws EagleException the first error raised by the source, Eagle or the callback while running.
+     * @throws InterruptedException if interrupted while waiting for the threads to finish.
+     */
+    public void stop() throws EagleException, InterruptedException {
+        Thread capture;
+        Thread inference;
+        synchronized (this) {
+            capture = captureThread;
+            inference = inferenceThread;
+        }
+        if (capture == null) {
+            return;
+        }
+
+        isStopping = true;
+        try {
+            source.stop();
+        } finally {
+            LockSupport.unpark(capture);
+            LockSupport.unpark(inference);
+            capture.join();
+            inference.join();
+            ring.clear();
+        }
+        rethrowError();
+    }
+
+    /**
+     * Waits until the source reaches the end of its audio and every captured frame has been processed, or until the
+     * pipeline fails or is stopped.
+     *
+     * @throws EagleException the first error raised by the source, Eagle or the callback while running.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void awaitCompletion() throws EagleException, InterruptedException {
+        Thread inference;
+        synchronized (this) {
+            inference = inferenceThread;
+        }
+        if (inference == null) {
+            throw new EagleInvalidStateException("EagleAudioPipeline has not been started.");
+        }
+
+        inference.join();
+        rethrowError();
+    }
+
+    /**
+     * Getter for the number of complete frames read from the source.
+     *
+     * @return Number of captured frames.
+     */
+    public long getNumCapturedFrames() {
+        return numCapturedFrames;
+    }
+
+    /**
+     * Getter for the number of frames that went through Eagle inference.
+     *
+     * @return Number of processed frames.
+     */
+    public long getNumProcessedFrames() {
+        return numProcessedFrames;
+    }
+
+    /**
+     * Getter for the number of captured frames discarded by the `DROP_OLDEST` and `DROP_NEWEST` policies.
+     *
+     * @return Number of dropped frames.
+     */
+    public long getNumDroppedFrames() {
+        return numDroppedFrames;
+    }
+
+    /**
+     * Getter for the number of times a captured frame found the queue full, whatever the policy did about it.
+     *
+     * @return Number of queue overruns.
+     */
+    public long getNumOverruns() {
+        return numOverruns;
+    }
+
+    private void runCapture() {
+        raiseCapturePriority();
+        try {
+            while (!isStopping && readFrame()) {
+                numCapturedFrames++;
+                enqueue();
+            }
+        } catch (Throwable t) {
+            fail(t);
+        } finally {
+            isCaptureDone = true;
+            LockSupport.unpark(inferenceThread);
+        }
+    }
+
+    private boolean readFrame() throws EagleException {
+        int numRead = 0;
+        while (numRead < captureFrame.length) {
+            if (isStopping) {
+                return false;
+            }
+
+            int n = source.read(captureFrame, numRead, captureFrame.length - numRead);
+            if (n < 0) {
+                return false;
+            }
+            numRead += n;
+        }
+        return true;
+    }
+
+    private void enqueue() {
+        long position = ring.tryClaim();
+        if (position < 0) {
+            numOverruns++;
+            switch (backpressure) {
+                case DROP_NEWEST:
+                    numDroppedFrames++;
+                    return;
+                case DROP_OLDEST:
+                    position = dropOldestAndClaim();
+                    break;
+                case BLOCK:
+                default:
+                    position = waitAndClaim();
+                    break;
+            }
+            if (position < 0) {
+                return;
+            }
+        }
+
+        System.arraycopy(captureFrame, 0, ring.frameAt(position), 0, captureFrame.length);
+        ring.commit(position);
+        if (isInferenceWaiting) {
+            LockSupport.unpark(inferenceThread);
+        }
+    }
+
+    private long dropOldestAndClaim() {
+        long oldest = ring.tryTake();
+        if (oldest >= 0) {
+            ring.release(oldest);
+            numDroppedFrames++;
+        }
+
+        long position = ring.tryClaim();
+        if (position < 0) {
+            // inference took the oldest frame first and frees its slot as soon as it has copied the frame out
+            position = waitAndClaim();
+        }
+        return position;
+    }
+
+    private long waitAndClaim() {
+        while (!isStopping) {
+            isCaptureWaiting = true;
+            long position = ring.tryClaim();
+            if (position >= 0) {
+                isCaptureWaiting = false;
+                return position;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            isCaptureWaiting = false;
+        }
+        return -1;
+    }
+
+    private void runInference() {
+        float[] scores = null;
+        try {
+            while (!isStopping) {
+                long position = ring.tryTake();
+                if (position < 0) {
+                    if (isCaptureDone) {
+                        // capture may have published a last frame before finishing
+                        position = ring.tryTake();
+                        if (position < 0) {
+                            return;
+                        }
+                    } else {
+                        isInferenceWaiting = true;
+                        if (!isCaptureDone && ring.isEmpty()) {
+                            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                        }
+                        isInferenceWaiting = false;
+                        continue;
+                    }
+                }
+
+                System.arraycopy(ring.frameAt(position), 0, inferenceFrame, 0, inferenceFrame.length);
+                ring.release(position);
+                if (isCaptureWaiting) {
+                    LockSupport.unpark(captureThread);
+                }
+
+                scores = engine.process(inferenceFrame, scores);
+                numProcessedFrames++;
+                callback.onScores(scores);
+            }
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    private static void raiseCapturePriority() {
+        try {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+        } catch (RuntimeException | LinkageError ignored) {
+            // not running on Android, e.g. in JVM unit tests, so the capture thread keeps the default priority
+        }
+    }
+
+    private void fail(Throwable t) {
+        error.compareAndSet(null, t);
+        isStopping = true;
+        LockSupport.unpark(captureThread);
+        LockSupport.unpark(inferenceThread);
+    }
+
+    private void rethrowError() throws EagleException {
+        Throwable cause = error.get();
+        if (cause == null) {
+            return;
+        }
+
+        if (cause instanceof EagleException) {
+            throw (EagleException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new EagleException(cause);
+    }
+
+    /**
+     * The inference step of the pipeline. Implemented by `Eagle`, and by fakes in tests.
+     */
+    interface Engine {
+
+        int getFrameLength();
+
+        float[] process(short[] pcm, float[] scores) throws EagleException;
+    }
+
+    /**
+     * Builder for creating instance of EagleAudioPipeline.
+     */
+    public static class Builder {
+
+        private Eagle eagle = null;
+        private Engine engine = null;
+        private EagleAudioSource source = null;
+        private EagleStreamCallback callback = null;
+        private EagleBackpressure backpressure = EagleBackpressure.DROP_OLDEST;
+        private int queueCapacity = 16;
+
+        public Builder setEagle(Eagle eagle) {
+            this.eagle = eagle;
+            return this;
+        }
+
+        Builder setEngine(Engine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        public Builder setSource(EagleAudioSource source) {
+            this.source = source;
+            return this;
+        }
+
+        /**
+         * Sets the callback that receives the scores of every processed frame. It is invoked on the inference thread.
+         *
+         * @param callback Callback for the scores.
+         * @return This builder.
+         */
+        public Builder setCallback(EagleStreamCallback callback) {
+            this.callback = callback;
+            return this;
+        }
+
+        public Builder setBackpressure(EagleBackpressure backpressure) {
+            this.backpressure = backpressure;
+            return this;
+        }
+
+        /**
+         * Sets the number of frames the queue between capture and inference holds. The default is `16`, about half a
+         * second of audio.
+         *
+         * @param queueCapacity Number of frames, a power of two of at least `2`.
+         * @return This builder.
+         */
+        public Builder setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Validates properties and creates an instance of EagleAudioPipeline.
+         *
+         * @return An instance of EagleAudioPipeline
+         * @throws EagleException if any of the properties is invalid.
+         */
+        public EagleAudioPipeline build() throws EagleException {
+            if (eagle == null && engine == null) {
+                throw new EagleInvalidArgumentException("No Eagle instance was provided to EagleAudioPipeline");
+            }
+
+            if (source == null) {
+                throw new EagleInvalidArgumentException("No audio source was provided to EagleAudioPipeline");
+            }
+
+            if (callback == null) {
+                throw new EagleInvalidArgumentException("No callback was provided to EagleAudioPipeline");
+            }
+
+            if (backpressure == null) {
+                throw new EagleInvalidArgumentException("No backpressure policy was provided to EagleAudioPipeline");
+            }
+
+            if (queueCapacity < 2 || Integer.bitCount(queueCapacity) != 1) {
+                throw new EagleInvalidArgumentException("Queue capacity must be a power of two of at least 2");
+            }
+
+            Engine pipelineEngine = (engine != null) ? engine : wrap(eagle);
+            return new EagleAudioPipeline(pipelineEngine, source, callback, backpressure, queueCapacity);
+        }
+
+        private static Engine wrap(final Eagle eagle) {
+            return new Engine() {
+                @Override
+                public int getFrameLength() {
+                    return eagle.getFrameLength();
+                }
+
+                @Override
+                public float[] process(short[] pcm, float[] scores) throws EagleException {
+                    return eagle.processReusing(pcm, scores);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * A source of 16-bit linearly-encoded mono audio for an `EagleAudioPipeline`, e.g. a microphone, a network stream or
+ * a file. All methods except `.stop()` are called on the capture thread of the pipeline.
+ */
+public interface EagleAudioSource {
+
+    /**
+     * Starts producing audio. Called once before the first `.read()`.
+     *
+     * @throws EagleException if the source cannot be started.
+     */
+    void start() throws EagleException;
+
+    /**
+     * Reads audio, blocking until at least one sample is available.
+     *
+     * @param pcm Array that receives the samples.
+     * @param offset Index in `pcm` of the first sample to write.
+     * @param length Maximum number of samples to read.
+     * @return Number of samples read, or `-1` at the end of the audio.
+     * @throws EagleException if the audio cannot be read.
+     */
+    int read(short[] pcm, int offset, int length) throws EagleException;
+
+    /**
+     * Stops producing audio. Called from the thread stopping the pipeline, so it should make a blocked `.read()`
+     * return.
+     *
+     * @throws EagleException if the source cannot be stopped.
+     */
+    void stop() throws EagleException;
+}
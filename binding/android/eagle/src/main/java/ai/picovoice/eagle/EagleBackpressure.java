@@ -0,0 +1,27 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * What an `EagleAudioPipeline` does with a captured frame when inference has fallen behind and its frame queue is
+ * full:
+ * - `BLOCK`: Wait for inference to free a slot. Capture stalls, so the audio source itself may overrun.
+ * - `DROP_OLDEST`: Discard the oldest queued frame to make room, keeping latency bounded.
+ * - `DROP_NEWEST`: Discard the captured frame, keeping the queued audio contiguous.
+ */
+public enum EagleBackpressure {
+    BLOCK,
+    DROP_OLDEST,
+    DROP_NEWEST;
+}
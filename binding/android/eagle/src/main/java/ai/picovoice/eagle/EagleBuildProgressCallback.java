@@ -0,0 +1,28 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Callback that receives progress updates from `Eagle.Builder.buildAsync()` and
+ * `EagleProfiler.Builder.buildAsync()`.
+ */
+public interface EagleBuildProgressCallback {
+
+    /**
+     * Called on the builder's executor thread when a build stage starts.
+     *
+     * @param stage The stage that is starting.
+     */
+    void onStage(EagleBuildStage stage);
+}
@@ -0,0 +1,26 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Stages reported while an Eagle or EagleProfiler instance is being built asynchronously:
+ * - `EXTRACT`: Locating the model file and extracting it from the app package if needed.
+ * - `LOAD`: Loading the Eagle native library.
+ * - `INIT`: Initializing the native engine, which loads the model and validates the AccessKey.
+ */
+public enum EagleBuildStage {
+    EXTRACT,
+    LOAD,
+    INIT;
+}
@@ -0,0 +1,24 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * How an `EagleMultiChannelStream` handles interleaved multi-channel audio:
+ * - `DOWNMIX`: Average all channels into one mono signal, scored by a single Eagle instance.
+ * - `PER_CHANNEL`: Score every channel separately with its own Eagle instance, in parallel.
+ */
+public enum EagleChannelMode {
+    DOWNMIX,
+    PER_CHANNEL;
+}
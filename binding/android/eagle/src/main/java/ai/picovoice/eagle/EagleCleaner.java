@@ -0,0 +1,100 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Releases native handles whose owners became unreachable without being deleted. Owners register their handle at
+ * construction and call `Cleanable.clean()` from `delete()`; otherwise a daemon thread closes the handle once the
+ * owner has been garbage collected. Other resources, such as worker threads, are registered as a cleanup action.
+ * Uses a phantom reference queue because `java.lang.ref.Cleaner` requires API 33. The handle or action must not
+ * reference its owner, or the owner never becomes unreachable.
+ */
+final class EagleCleaner {
+
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+    private static final Set<Cleanable> REGISTERED =
+            Collections.newSetFromMap(new ConcurrentHashMap<Cleanable, Boolean>());
+
+    static {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        ((Cleanable) QUEUE.remove()).clean();
+                    } catch (InterruptedException ignored) {
+                        // keep draining, the thread lives as long as the process
+                    }
+                }
+            }
+        }, "EagleCleaner");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private EagleCleaner() { }
+
+    static Cleanable register(Object owner, EagleHandle handle) {
+        return register(owner, new CloseHandle(handle));
+    }
+
+    /**
+     * Registers a cleanup action, which has to be safe to run more than once.
+     */
+    static Cleanable register(Object owner, Runnable action) {
+        Cleanable cleanable = new Cleanable(owner, action);
+        REGISTERED.add(cleanable);
+        return cleanable;
+    }
+
+    static final class Cleanable extends PhantomReference<Object> {
+
+        private final Runnable action;
+
+        private Cleanable(Object owner, Runnable action) {
+            super(owner, QUEUE);
+            this.action = action;
+        }
+
+        /**
+         * Runs the cleanup action and unregisters it. Safe to call more than once.
+         */
+        void clean() {
+            if (REGISTERED.remove(this)) {
+                clear();
+            }
+            action.run();
+        }
+    }
+
+    private static final class CloseHandle implements Runnable {
+
+        private final EagleHandle handle;
+
+        CloseHandle(EagleHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public void run() {
+            handle.close();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import java.util.Arrays;
+
+/**
+ * Turns per-frame similarity scores into speaker enter and leave decisions. Scores are smoothed with an exponential
+ * moving average. A speaker enters once its smoothed score is at or above its enter threshold, and leaves once it
+ * drops below its leave threshold. Setting the leave threshold below the enter threshold adds hysteresis. A crossing
+ * has to hold for a minimum number of consecutive frames (the dwell) before the state changes, which filters out
+ * short spikes and dips. The listener is only notified on state changes.
+ * All state lives in primitive arrays allocated by the builder, so `.update()` allocates nothing. The engine can be
+ * passed to an `EagleStream` directly. It is not thread-safe.
+ */
+public class EagleDecisionEngine implements EagleStreamCallback {
+
+    private final EagleDecisionListener listener;
+    private final float smoothingFactor;
+    private final float[] enterThresholds;
+    private final float[] leaveThresholds;
+    private final int minDwellFrames;
+
+    private final float[] smoothedScores;
+    private final boolean[] isActive;
+    private final int[] numPendingFrames;
+    private final boolean[] isChanged;
+    private long frameIndex;
+
+    private EagleDecisionEngine(
+            EagleDecisionListener listener,
+            float smoothingFactor,
+            float[] enterThresholds,
+            float[] leaveThresholds,
+            int minDwellFrames) {
+        this.listener = listener;
+        this.smoothingFactor = smoothingFactor;
+        this.enterThresholds = enterThresholds;
+        this.leaveThresholds = leaveThresholds;
+        this.minDwellFrames = minDwellFrames;
+
+        int numSpeakers = enterThresholds.length;
+        this.smoothedScores = new float[numSpeakers];
+        this.isActive = new boolean[numSpeakers];
+        this.numPendingFrames = new int[numSpeakers];
+        this.isChanged = new boolean[numSpeakers];
+        this.frameIndex = 0;
+    }
+
+    /**
+     * Updates the smoothed scores and speaker states with the scores of the next frame, and notifies the listener of
+     * every state change. The state of every speaker is updated before the listener is called, so a listener that
+     * throws only drops the remaining notifications of this frame and leaves the engine consistent.
+     *
+     * @param scores Similarity scores of the frame, as produced by `Eagle.process()`. Its length must be at least
+     *               `.getNumSpeakers()`.
+     * @throws EagleException if `scores` is too short or the listener throws.
+     */
+    public void update(float[] scores) throws EagleException {
+        if (scores == null || scores.length < smoothedScores.length) {
+            throw new EagleInvalidArgumentException(
+                    String.format("Scores array must hold at least %d elements", smoothedScores.length));
+        }
+
+        for (int i = 0; i < smoothedScores.length; i++) {
+            isChanged[i] = false;
+            float smoothed = (smoothingFactor * smoothedScores[i]) + ((1 - smoothingFactor) * scores[i]);
+            smoothedScores[i] = smoothed;
+
+            boolean crossed;
+            if (isActive[i]) {
+                crossed = smoothed < leaveThresholds[i];
+            } else {
+                crossed = smoothed >= enterThresholds[i];
+            }
+
+            if (!crossed) {
+                numPendingFrames[i] = 0;
+                continue;
+            }
+
+            numPendingFrames[i]++;
+            if (numPendingFrames[i] >= minDwellFrames) {
+                numPendingFrames[i] = 0;
+                isActive[i] = !isActive[i];
+                isChanged[i] = true;
+            }
+        }
+        long index = frameIndex++;
+
+        for (int i = 0; i < isChanged.length; i++) {
+            if (!isChanged[i]) {
+                continue;
+            }
+
+            if (isActive[i]) {
+                listener.onSpeakerEnter(i, index, smoothedScores[i]);
+            } else {
+                listener.onSpeakerLeave(i, index, smoothedScores[i]);
+            }
+        }
+    }
+
+    @Override
+    public void onScores(float[] scores) throws EagleException {
+        update(scores);
+    }
+
+    /**
+     * Clears the smoothed scores and marks every speaker as not detected, without notifying the listener.
+     * It should be called before processing a new stream of audio.
+     */
+    public void reset() {
+        Arrays.fill(smoothedScores, 0);
+        Arrays.fill(isActive, false);
+        Arrays.fill(numPendingFrames, 0);
+        Arrays.fill(isChanged, false);
+        frameIndex = 0;
+    }
+
+    /**
+     * Getter for the number of speakers tracked by the engine.
+     *
+     * @return Number of speakers.
+     */
+    public int getNumSpeakers() {
+        return smoothedScores.length;
+    }
+
+    /**
+     * Getter for the smoothed score of a speaker.
+     *
+     * @param speakerIndex Index of the speaker profile.
+     * @return Smoothed score after the last update.
+     */
+    public float getSmoothedScore(int speakerIndex) {
+        return smoothedScores[speakerIndex];
+    }
+
+    /**
+     * Copies the smoothed scores of all speakers into `scoresOut`.
+     *
+     * @param scoresOut Array that receives the smoothed scores. Its length must be at least `.getNumSpeakers()`.
+     */
+    public void getSmoothedScores(float[] scoresOut) {
+        System.arraycopy(smoothedScores, 0, scoresOut, 0, smoothedScores.length);
+    }
+
+    /**
+     * Getter for the detected state of a speaker.
+     *
+     * @param speakerIndex Index of the speaker profile.
+     * @return Whether the speaker is currently detected.
+     */
+    public boolean isSpeakerActive(int speakerIndex) {
+        return isActive[speakerIndex];
+    }
+
+    /**
+     * Builder for creating instance of EagleDecisionEngine.
+     */
+    public static class Builder {
+
+        private int numSpeakers = 0;
+        private EagleDecisionListener listener = null;
+        private float smoothingFactor = 0.25f;
+        private float enterThreshold = 0.5f;
+        private float leaveThreshold = 0.4f;
+        private float[] enterThresholds = null;
+        private float[] leaveThresholds = null;
+        private int minDwellFrames = 1;
+
+        public Builder setNumSpeakers(int numSpeakers) {
+            this.numSpeakers = numSpeakers;
+            return this;
+        }
+
+        public Builder setListener(EagleDecisionListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Sets the weight of the previous smoothed score in the moving average, in `[0, 1)`. The default is `0.25`;
+         * `0` disables smoothing.
+         *
+         * @param smoothingFactor Smoothing factor.
+         * @return This builder.
+         */
+        public Builder setSmoothingFactor(float smoothingFactor) {
+            this.smoothingFactor = smoothingFactor;
+            return this;
+        }
+
+        /**
+         * Sets the enter and leave thresholds for all speakers. Defaults to `0.5` and `0.4`.
+         *
+         * @param enterThreshold Smoothed score at or above which a speaker enters.
+         * @param leaveThreshold Smoothed score below which a speaker leaves. Must not exceed `enterThreshold`.
+         * @return This builder.
+         */
+        public Builder setThresholds(float enterThreshold, float leaveThreshold) {
+            this.enterThreshold = enterThreshold;
+            this.leaveThreshold = leaveThreshold;
+            this.enterThresholds = null;
+            this.leaveThresholds = null;
+            return this;
+        }
+
+        /**
+         * Sets per-speaker enter and leave thresholds. Both arrays hold one threshold per speaker and override
+         * `.setThresholds(float, float)`.
+         *
+         * @param enterThresholds Smoothed scores at or above which each speaker enters.
+         * @param leaveThresholds Smoothed scores below which each speaker leaves.
+         * @return This builder.
+         */
+        public Builder setThresholds(float[] enterThresholds, float[] leaveThresholds) {
+            this.enterThresholds = enterThresholds;
+            this.leaveThresholds = leaveThresholds;
+            return this;
+        }
+
+        /**
+         * Sets the number of consecutive frames a threshold crossing has to hold before the state of a speaker
+         * changes. The default is `1`, which changes state on the first crossing frame.
+         *
+         * @param minDwellFrames Minimum number of frames.
+         * @return This builder.
+         */
+        public Builder setMinDwellFrames(int minDwellFrames) {
+            this.minDwellFrames = minDwellFrames;
+            return this;
+        }
+
+        /**
+         * Validates properties and creates an instance of EagleDecisionEngine.
+         *
+         * @return An instance of EagleDecisionEngine
+         * @throws EagleException if any of the properties is invalid.
+         */
+        public EagleDecisionEngine build() throws EagleException {
+            if (listener == null) {
+                throw new EagleInvalidArgumentException("No listener was provided to EagleDecisionEngine");
+            }
+
+            if (!(smoothingFactor >= 0 && smoothingFactor < 1)) {
+                throw new EagleInvalidArgumentException("Smoothing factor must be in the range [0, 1)");
+            }
+
+            if (minDwellFrames < 1) {
+                throw new EagleInvalidArgumentException("Minimum dwell must be at least 1 frame");
+            }
+
+            float[] enter;
+            float[] leave;
+            if (enterThresholds != null || leaveThresholds != null) {
+                if (enterThresholds == null || leaveThresholds == null) {
+                    throw new EagleInvalidArgumentException("Both enter and leave thresholds must be provided");
+                }
+
+                if (enterThresholds.length != leaveThresholds.length) {
+                    throw new EagleInvalidArgumentException(
+                            "Enter and leave thresholds must have the same number of speakers");
+                }
+
+                if (numSpeakers != 0 && numSpeakers != enterThresholds.length) {
+                    throw new EagleInvalidArgumentException(
+                            String.format("Expected thresholds for %d speakers but got %d",
+                                    numSpeakers, enterThresholds.length));
+                }
+                enter = enterThresholds.clone();
+                leave = leaveThresholds.clone();
+            } else {
+                enter = new float[numSpeakers];
+                leave = new float[numSpeakers];
+                Arrays.fill(enter, enterThreshold);
+                Arrays.fill(leave, leaveThreshold);
+            }
+
+            if (enter.length == 0) {
+                throw new EagleInvalidArgumentException("Number of speakers must be at least 1");
+            }
+
+            for (int i = 0; i < enter.length; i++) {
+                if (leave[i] > enter[i]) {
+                    throw new EagleInvalidArgumentException(
+                            String.format("Leave threshold of speaker %d exceeds its enter threshold", i));
+                }
+            }
+
+            return new EagleDecisionEngine(listener, smoothingFactor, enter, leave, minDwellFrames);
+        }
+    }
+}
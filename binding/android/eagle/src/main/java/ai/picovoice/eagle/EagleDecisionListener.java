@@ -0,0 +1,40 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Listener notified by an `EagleDecisionEngine` when the detected state of a speaker changes.
+ */
+public interface EagleDecisionListener {
+
+    /**
+     * Called when a speaker starts being detected.
+     *
+     * @param speakerIndex Index of the speaker profile.
+     * @param frameIndex Index of the frame at which the change was decided, counted from the last reset.
+     * @param score Smoothed score of the speaker at that frame.
+     * @throws EagleException to abort the current `EagleDecisionEngine.update()` call.
+     */
+    void onSpeakerEnter(int speakerIndex, long frameIndex, float score) throws EagleException;
+
+    /**
+     * Called when a speaker stops being detected.
+     *
+     * @param speakerIndex Index of the speaker profile.
+     * @param frameIndex Index of the frame at which the change was decided, counted from the last reset.
+     * @param score Smoothed score of the speaker at that frame.
+     * @throws EagleException to abort the current `EagleDecisionEngine.update()` call.
+     */
+    void onSpeakerLeave(int speakerIndex, long frameIndex, float score) throws EagleException;
+}
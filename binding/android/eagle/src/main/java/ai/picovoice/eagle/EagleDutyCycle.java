@@ -0,0 +1,288 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Adaptive duty cycle for an `EagleStream`. While the smoothed top score stays stable, only a burst of `burstLength`
+ * contiguous frames in every `frameInterval` frames goes through Eagle inference, and the others repeat the last
+ * scores. Full rate resumes as soon as the level of the audio or the smoothed top score changes. Eagle carries context
+ * from frame to frame, so it must never see spliced audio: every burst starts from a reset state, and the engine is
+ * reset again when full rate resumes. A frame scored right after a reset lacks the context of steady-state scoring, so
+ * the first frames of a burst only prime the engine, and only the scores of the last frame are reported and compared
+ * against the full-rate scores. A duty cycle is stateful, so use one per stream.
+ */
+public class EagleDutyCycle {
+
+    static final int SKIP = 0;
+    static final int PROCESS = 1;
+    static final int RESET_AND_PROCESS = 2;
+    static final int WARM_UP = 3;
+    static final int RESET_AND_WARM_UP = 4;
+
+    private final float smoothingFactor;
+    private final float scoreTolerance;
+    private final float levelTolerance;
+    private final int minStableFrames;
+    private final int frameInterval;
+    private final int burstLength;
+
+    private boolean isReducedRate;
+    private boolean hasScore;
+    private float smoothedTopScore;
+    private float referenceTopScore;
+    private float referenceLevel;
+    private int numStableFrames;
+    private int numFramesSinceBurst;
+
+    private EagleDutyCycle(
+            float smoothingFactor,
+            float scoreTolerance,
+            float levelTolerance,
+            int minStableFrames,
+            int frameInterval,
+            int burstLength) {
+        this.smoothingFactor = smoothingFactor;
+        this.scoreTolerance = scoreTolerance;
+        this.levelTolerance = levelTolerance;
+        this.minStableFrames = minStableFrames;
+        this.frameInterval = frameInterval;
+        this.burstLength = burstLength;
+        reset();
+    }
+
+    /**
+     * Decides what to do with the next frame given its level. In reduced-rate mode the frames before a burst were
+     * skipped, so the first frame of a burst always resets the engine. The frames of a burst before the last one are
+     * `WARM_UP` frames, whose scores are neither reported nor passed to `.onProcessed()`.
+     */
+    int nextFrame(float level) {
+        if (!isReducedRate) {
+            return PROCESS;
+        }
+
+        if (Math.abs(level - referenceLevel) > levelTolerance) {
+            leaveReducedRate();
+            return RESET_AND_PROCESS;
+        }
+
+        numFramesSinceBurst++;
+        int burstIndex = numFramesSinceBurst - (frameInterval - burstLength) - 1;
+        if (burstIndex < 0) {
+            return SKIP;
+        }
+
+        boolean isFirst = burstIndex == 0;
+        if (burstIndex == burstLength - 1) {
+            numFramesSinceBurst = 0;
+            return isFirst ? RESET_AND_PROCESS : PROCESS;
+        }
+        return isFirst ? RESET_AND_WARM_UP : WARM_UP;
+    }
+
+    /**
+     * Updates the stability tracking with the scores of a reported frame, i.e. any processed frame other than a
+     * `WARM_UP` frame. Returns `true` if the scores changed enough to leave reduced-rate mode, in which case the
+     * caller resets the engine.
+     */
+    boolean onProcessed(float[] scores, float level) {
+        float topScore = 0;
+        for (float score : scores) {
+            topScore = Math.max(topScore, score);
+        }
+
+        if (!hasScore) {
+            smoothedTopScore = topScore;
+            referenceTopScore = topScore;
+            hasScore = true;
+            return false;
+        }
+        smoothedTopScore = (smoothingFactor * smoothedTopScore) + ((1 - smoothingFactor) * topScore);
+
+        boolean isStable = Math.abs(smoothedTopScore - referenceTopScore) <= scoreTolerance;
+        if (isReducedRate) {
+            if (!isStable) {
+                leaveReducedRate();
+                return true;
+            }
+            return false;
+        }
+
+        if (isStable) {
+            numStableFrames++;
+            if (numStableFrames >= minStableFrames) {
+                isReducedRate = true;
+                referenceLevel = level;
+                numFramesSinceBurst = 0;
+            }
+        } else {
+            numStableFrames = 0;
+            referenceTopScore = smoothedTopScore;
+        }
+        return false;
+    }
+
+    /**
+     * Returns to full rate and clears the stability tracking. It should be called before processing a new stream of
+     * audio.
+     */
+    public void reset() {
+        isReducedRate = false;
+        hasScore = false;
+        smoothedTopScore = 0;
+        referenceTopScore = 0;
+        referenceLevel = 0;
+        numStableFrames = 0;
+        numFramesSinceBurst = 0;
+    }
+
+    /**
+     * Getter for the current mode.
+     *
+     * @return Whether frames are currently processed at the reduced rate.
+     */
+    public boolean isReducedRate() {
+        return isReducedRate;
+    }
+
+    private void leaveReducedRate() {
+        isReducedRate = false;
+        hasScore = false;
+        numStableFrames = 0;
+        numFramesSinceBurst = 0;
+    }
+
+    /**
+     * Builder for creating instance of EagleDutyCycle.
+     */
+    public static class Builder {
+
+        private float smoothingFactor = 0.75f;
+        private float scoreTolerance = 0.05f;
+        private float levelTolerance = 6f;
+        private int minStableFrames = 60;
+        private int frameInterval = 8;
+        private int burstLength = 3;
+
+        /**
+         * Sets the weight of the previous smoothed top score in its moving average, in `[0, 1)`. The default is
+         * `0.75`.
+         *
+         * @param smoothingFactor Smoothing factor.
+         * @return This builder.
+         */
+        public Builder setSmoothingFactor(float smoothingFactor) {
+            this.smoothingFactor = smoothingFactor;
+            return this;
+        }
+
+        /**
+         * Sets how far the smoothed top score may drift and still count as stable. The default is `0.05`.
+         *
+         * @param scoreTolerance Maximum score change.
+         * @return This builder.
+         */
+        public Builder setScoreTolerance(float scoreTolerance) {
+            this.scoreTolerance = scoreTolerance;
+            return this;
+        }
+
+        /**
+         * Sets how far the audio level may move away from its level when reduced rate started, in dB, before full
+         * rate resumes. The default is `6`.
+         *
+         * @param levelTolerance Maximum level change in dB.
+         * @return This builder.
+         */
+        public Builder setLevelTolerance(float levelTolerance) {
+            this.levelTolerance = levelTolerance;
+            return this;
+        }
+
+        /**
+         * Sets the number of consecutive stable frames at full rate before the rate is reduced. The default is `60`,
+         * about two seconds of audio.
+         *
+         * @param minStableFrames Number of frames.
+         * @return This builder.
+         */
+        public Builder setMinStableFrames(int minStableFrames) {
+            this.minStableFrames = minStableFrames;
+            return this;
+        }
+
+        /**
+         * Sets the reduced rate as one burst of processed frames in every `frameInterval` frames. The default is `8`.
+         *
+         * @param frameInterval Frame interval in reduced-rate mode, at least the burst length.
+         * @return This builder.
+         */
+        public Builder setFrameInterval(int frameInterval) {
+            this.frameInterval = frameInterval;
+            return this;
+        }
+
+        /**
+         * Sets the number of contiguous frames processed in every interval at the reduced rate, starting from a reset
+         * state. Only the last frame of a burst is reported, so the burst has to be long enough for Eagle to reach
+         * steady-state scores. The default is `3`.
+         *
+         * @param burstLength Number of frames per burst, at least `1`.
+         * @return This builder.
+         */
+        public Builder setBurstLength(int burstLength) {
+            this.burstLength = burstLength;
+            return this;
+        }
+
+        /**
+         * Validates properties and creates an instance of EagleDutyCycle.
+         *
+         * @return An instance of EagleDutyCycle
+         * @throws EagleException if any of the properties is invalid.
+         */
+        public EagleDutyCycle build() throws EagleException {
+            if (!(smoothingFactor >= 0 && smoothingFactor < 1)) {
+                throw new EagleInvalidArgumentException("Smoothing factor must be in the range [0, 1)");
+            }
+
+            if (!(scoreTolerance >= 0)) {
+                throw new EagleInvalidArgumentException("Score tolerance cannot be negative");
+            }
+
+            if (!(levelTolerance >= 0)) {
+                throw new EagleInvalidArgumentException("Level tolerance cannot be negative");
+            }
+
+            if (minStableFrames < 1) {
+                throw new EagleInvalidArgumentException("Number of stable frames must be at least 1");
+            }
+
+            if (burstLength < 1) {
+                throw new EagleInvalidArgumentException("Burst length must be at least 1");
+            }
+
+            if (frameInterval < burstLength) {
+                throw new EagleInvalidArgumentException("Frame interval must be at least the burst length");
+            }
+
+            return new EagleDutyCycle(
+                    smoothingFactor,
+                    scoreTolerance,
+                    levelTolerance,
+                    minStableFrames,
+                    frameInterval,
+                    burstLength);
+        }
+    }
+}
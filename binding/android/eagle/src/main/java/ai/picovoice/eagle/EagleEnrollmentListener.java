@@ -0,0 +1,28 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Listener that receives the progress of an `EagleEnrollmentSession`.
+ */
+public interface EagleEnrollmentListener {
+
+    /**
+     * Called after every enrollment step triggered by the session.
+     *
+     * @param result Enrollment percentage and feedback returned by `EagleProfiler.enroll()`.
+     * @throws EagleException to abort the current `EagleEnrollmentSession.feed()` call.
+     */
+    void onEnrollProgress(EagleProfilerEnrollResult result) throws EagleException;
+}
@@ -0,0 +1,183 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Feeds audio chunks of arbitrary length to an `EagleProfiler`. Samples passed to `.feed()` are accumulated into a
+ * buffer of fixed size. Every time the buffer is full, `EagleProfiler.enroll()` runs on it and the listener receives
+ * the result. Capture code can therefore hand over its read buffers directly instead of collecting
+ * `EagleProfiler.getMinEnrollSamples()` samples itself, and export the profile with `.finish()` once the session is
+ * complete. The session allocates nothing after construction, except for the result objects returned by the
+ * profiler. It is not thread-safe and does not take ownership of the `EagleProfiler` instance.
+ */
+public class EagleEnrollmentSession {
+
+    private final EagleProfiler profiler;
+    private final EagleEnrollmentListener listener;
+    private final short[] buffer;
+
+    private int numBufferedSamples;
+    private EagleProfilerEnrollResult lastResult;
+
+    /**
+     * Constructor. Enrollment runs on chunks of `EagleProfiler.getMinEnrollSamples()` samples.
+     *
+     * @param profiler An instance of EagleProfiler to enroll the audio with.
+     * @param listener Listener invoked with the result of every enrollment step.
+     * @throws EagleException if the arguments are invalid.
+     */
+    public EagleEnrollmentSession(
+            EagleProfiler profiler,
+            EagleEnrollmentListener listener) throws EagleException {
+        this(profiler, listener, (profiler != null) ? profiler.getMinEnrollSamples() : 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param profiler An instance of EagleProfiler to enroll the audio with.
+     * @param listener Listener invoked with the result of every enrollment step.
+     * @param enrollSamples Number of samples passed to each `EagleProfiler.enroll()` call. It must be at least
+     *                      `EagleProfiler.getMinEnrollSamples()`.
+     * @throws EagleException if the arguments are invalid.
+     */
+    public EagleEnrollmentSession(
+            EagleProfiler profiler,
+            EagleEnrollmentListener listener,
+            int enrollSamples) throws EagleException {
+        if (profiler == null) {
+            throw new EagleInvalidArgumentException("No EagleProfiler instance was provided to EagleEnrollmentSession");
+        }
+
+        if (listener == null) {
+            throw new EagleInvalidArgumentException("No listener was provided to EagleEnrollmentSession");
+        }
+
+        if (enrollSamples < profiler.getMinEnrollSamples()) {
+            throw new EagleInvalidArgumentException(
+                    String.format("Number of enroll samples must be at least %d", profiler.getMinEnrollSamples()));
+        }
+
+        this.profiler = profiler;
+        this.listener = listener;
+        this.buffer = new short[enrollSamples];
+        this.numBufferedSamples = 0;
+        this.lastResult = null;
+    }
+
+    /**
+     * Feeds a chunk of audio to the session. Every time enough samples have been collected, they are enrolled and
+     * the listener is invoked before this call returns. Leftover samples are kept until the next call.
+     *
+     * @param pcm Audio samples. The audio needs to have a sample rate equal to `EagleProfiler.getSampleRate()` and be
+     *            16-bit linearly-encoded.
+     * @param offset Index of the first sample to consume.
+     * @param length Number of samples to consume.
+     * @throws EagleException if there is an error while enrolling.
+     */
+    public void feed(short[] pcm, int offset, int length) throws EagleException {
+        if (pcm == null || offset < 0 || length < 0 || length > pcm.length - offset) {
+            throw new EagleInvalidArgumentException("Invalid audio range passed to EagleEnrollmentSession feed.");
+        }
+
+        while (length > 0) {
+            int numCopied = Math.min(length, buffer.length - numBufferedSamples);
+            System.arraycopy(pcm, offset, buffer, numBufferedSamples, numCopied);
+            numBufferedSamples += numCopied;
+            offset += numCopied;
+            length -= numCopied;
+
+            if (numBufferedSamples == buffer.length) {
+                numBufferedSamples = 0;
+                lastResult = profiler.enroll(buffer);
+                listener.onEnrollProgress(lastResult);
+            }
+        }
+    }
+
+    /**
+     * Exports the enrolled speaker profile and discards buffered samples, which are not enough for another
+     * enrollment step. The profiler keeps its enrollment progress until `.reset()` is called.
+     *
+     * @return An EagleProfile object.
+     * @throws EagleException if enrollment is not complete or there is an error while exporting the profile.
+     */
+    public EagleProfile finish() throws EagleException {
+        if (!isComplete()) {
+            throw new EagleInvalidStateException(String.format(
+                    "Attempted to finish eagle enrollment session at %.1f%% enrollment.",
+                    getPercentage()));
+        }
+
+        numBufferedSamples = 0;
+        return profiler.export();
+    }
+
+    /**
+     * Discards buffered samples and resets the underlying EagleProfiler, which clears the enrollment progress.
+     *
+     * @throws EagleException if there is an error while resetting the profiler.
+     */
+    public void reset() throws EagleException {
+        numBufferedSamples = 0;
+        lastResult = null;
+        profiler.reset();
+    }
+
+    /**
+     * Getter for the enrollment percentage after the last enrollment step.
+     *
+     * @return Percentage of enrollment completed, `0` before the first step.
+     */
+    public float getPercentage() {
+        return (lastResult != null) ? lastResult.getPercentage() : 0;
+    }
+
+    /**
+     * Getter for whether enrollment is complete, after which the profile can be exported.
+     *
+     * @return Whether the enrollment percentage has reached 100.
+     */
+    public boolean isComplete() {
+        return getPercentage() >= 100;
+    }
+
+    /**
+     * Getter for the number of samples waiting for the next enrollment step.
+     *
+     * @return Number of buffered samples.
+     */
+    public int getNumBufferedSamples() {
+        return numBufferedSamples;
+    }
+
+    /**
+     * Getter for the fraction of the next enrollment step that has been collected, for showing capture progress
+     * between steps.
+     *
+     * @return Fraction in `[0, 1)`.
+     */
+    public float getBufferFillRatio() {
+        return (float) numBufferedSamples / buffer.length;
+    }
+
+    /**
+     * Getter for the EagleProfiler instance this session feeds.
+     *
+     * @return The EagleProfiler instance.
+     */
+    public EagleProfiler getProfiler() {
+        return profiler;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * A cheap speech detector that lets an `EagleStream` skip Eagle inference on frames without speech. A frame counts as
+ * speech if its level reaches the energy threshold and its zero-crossing rate does not exceed the maximum, which
+ * rejects hiss and other broadband noise. After the last speech frame, frames keep being processed for a number of
+ * hangover frames so that word endings and short pauses are not cut. A gate is stateful, so use one per stream.
+ */
+public class EagleFrameGate {
+
+    private final double energyThreshold;
+    private final float maxZeroCrossingRate;
+    private final int hangoverFrames;
+    private final EagleFrameGateMode mode;
+
+    private int numHangoverFramesLeft;
+    private float lastLevel;
+
+    private EagleFrameGate(
+            float energyThresholdDb,
+            float maxZeroCrossingRate,
+            int hangoverFrames,
+            EagleFrameGateMode mode) {
+        double amplitude = Short.MAX_VALUE * Math.pow(10, energyThresholdDb / 20.0);
+        this.energyThreshold = amplitude * amplitude;
+        this.maxZeroCrossingRate = maxZeroCrossingRate;
+        this.hangoverFrames = hangoverFrames;
+        this.mode = mode;
+        reset();
+    }
+
+    /**
+     * Decides whether a frame should go through Eagle inference, and updates the hangover state.
+     *
+     * @param frame A frame of 16-bit linearly-encoded audio samples.
+     * @return `true` if the frame is speech or within the hangover after speech.
+     */
+    public boolean shouldProcess(short[] frame) {
+        long sumOfSquares = 0;
+        int numZeroCrossings = 0;
+        if (frame.length > 0) {
+            sumOfSquares = frame[0] * frame[0];
+        }
+
+        // crossings are counted between adjacent samples, so there are at most `frame.length - 1` of them
+        int previous = (frame.length > 0) ? frame[0] : 0;
+        for (int i = 1; i < frame.length; i++) {
+            int sample = frame[i];
+            sumOfSquares += sample * sample;
+            if ((sample ^ previous) < 0) {
+                numZeroCrossings++;
+            }
+            previous = sample;
+        }
+
+        double meanSquare = (frame.length > 0) ? (double) sumOfSquares / frame.length : 0;
+        float zeroCrossingRate = (frame.length > 1) ? (float) numZeroCrossings / (frame.length - 1) : 0;
+        lastLevel = toDb(meanSquare);
+
+        boolean isSpeech = meanSquare >= energyThreshold && zeroCrossingRate <= maxZeroCrossingRate;
+        if (isSpeech) {
+            numHangoverFramesLeft = hangoverFrames;
+            return true;
+        }
+
+        if (numHangoverFramesLeft > 0) {
+            numHangoverFramesLeft--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Clears the hangover state. It should be called before processing a new stream of audio.
+     */
+    public void reset() {
+        numHangoverFramesLeft = 0;
+        lastLevel = Float.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Getter for the level of the last frame passed to `.shouldProcess()`.
+     *
+     * @return RMS level in dB relative to full scale, or negative infinity for silence.
+     */
+    public float getLastLevel() {
+        return lastLevel;
+    }
+
+    /**
+     * Getter for what is reported for skipped frames.
+     *
+     * @return The skip mode.
+     */
+    public EagleFrameGateMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Computes the RMS level of a frame in dB relative to full scale.
+     */
+    static float computeLevel(short[] frame) {
+        long sumOfSquares = 0;
+        for (int i = 0; i < frame.length; i++) {
+            sumOfSquares += frame[i] * frame[i];
+        }
+        return toDb((frame.length > 0) ? (double) sumOfSquares / frame.length : 0);
+    }
+
+    private static float toDb(double meanSquare) {
+        if (meanSquare <= 0) {
+            return Float.NEGATIVE_INFINITY;
+        }
+        return (float) (10 * Math.log10(meanSquare / ((double) Short.MAX_VALUE * Short.MAX_VALUE)));
+    }
+
+    /**
+     * Builder for creating instance of EagleFrameGate.
+     */
+    public static class Builder {
+
+        private float energyThresholdDb = -45f;
+        private float maxZeroCrossingRate = 1f;
+        private int hangoverFrames = 8;
+        private EagleFrameGateMode mode = EagleFrameGateMode.REPEAT_LAST;
+
+        /**
+         * Sets the minimum RMS level of a speech frame, in dB relative to full scale. The default is `-45`.
+         *
+         * @param energyThresholdDb Energy threshold in dBFS, at most `0`.
+         * @return This builder.
+         */
+        public Builder setEnergyThreshold(float energyThresholdDb) {
+            this.energyThresholdDb = energyThresholdDb;
+            return this;
+        }
+
+        /**
+         * Sets the maximum fraction of adjacent samples that change sign in a speech frame. The default is `1`,
+         * which disables the check.
+         *
+         * @param maxZeroCrossingRate Maximum zero-crossing rate, in `(0, 1]`.
+         * @return This builder.
+         */
+        public Builder setMaxZeroCrossingRate(float maxZeroCrossingRate) {
+            this.maxZeroCrossingRate = maxZeroCrossingRate;
+            return this;
+        }
+
+        /**
+         * Sets the number of frames still processed after the last speech frame. The default is `8`.
+         *
+         * @param hangoverFrames Number of hangover frames.
+         * @return This builder.
+         */
+        public Builder setHangoverFrames(int hangoverFrames) {
+            this.hangoverFrames = hangoverFrames;
+            return this;
+        }
+
+        /**
+         * Sets what the stream reports for skipped frames: `REPEAT_LAST` repeats the scores of the last processed
+         * frame, and `ZEROS` reports a score of zero for every speaker. The default is `REPEAT_LAST`.
+         *
+         * @param mode Scores reported for non-speech frames.
+         * @return This builder.
+         */
+        public Builder setMode(EagleFrameGateMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * Validates properties and creates an instance of EagleFrameGate.
+         *
+         * @return An instance of EagleFrameGate
+         * @throws EagleException if any of the properties is invalid.
+         */
+        public EagleFrameGate build() throws EagleException {
+            if (!(energyThresholdDb <= 0)) {
+                throw new EagleInvalidArgumentException("Energy threshold must be at most 0 dBFS");
+            }
+
+            if (!(maxZeroCrossingRate > 0 && maxZeroCrossingRate <= 1)) {
+                throw new EagleInvalidArgumentException("Maximum zero-crossing rate must be in the range (0, 1]");
+            }
+
+            if (hangoverFrames < 0) {
+                throw new EagleInvalidArgumentException("Number of hangover frames cannot be negative");
+            }
+
+            if (mode == null) {
+                throw new EagleInvalidArgumentException("No skip mode was provided to EagleFrameGate");
+            }
+
+            return new EagleFrameGate(energyThresholdDb, maxZeroCrossingRate, hangoverFrames, mode);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * What an `EagleStream` reports for frames that an `EagleFrameGate` judges to be non-speech:
+ * - `REPEAT_LAST`: The scores of the last processed frame, or zeros if no frame was processed yet.
+ * - `ZEROS`: A score of zero for every speaker.
+ */
+public enum EagleFrameGateMode {
+    REPEAT_LAST,
+    ZEROS;
+}
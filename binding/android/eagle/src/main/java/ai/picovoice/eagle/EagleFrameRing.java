@@ -0,0 +1,115 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of preallocated audio frames, after Dmitry Vyukov's bounded MPMC queue. Every slot carries
+ * a sequence number that tells producers and consumers whether it is free or filled for their current position, so
+ * slots are handed over without locks and frames are never allocated or copied by the queue. Consumers claim a
+ * position with a CAS, which lets the producer also discard the oldest frame while the regular consumer is running.
+ * Slots are filled and drained in place between `try*()` and the matching `commit*()` / `release()`.
+ */
+final class EagleFrameRing {
+
+    private final short[][] frames;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    EagleFrameRing(int capacity, int frameLength) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Frame ring capacity must be a power of two of at least 2");
+        }
+
+        this.frames = new short[capacity][frameLength];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Claims the next free slot for writing. Only one thread may enqueue.
+     *
+     * @return The claimed position, or `-1` if the ring is full.
+     */
+    long tryClaim() {
+        long position = enqueuePosition.get();
+        if (sequences.get((int) position & mask) != position) {
+            return -1;
+        }
+        enqueuePosition.lazySet(position + 1);
+        return position;
+    }
+
+    /**
+     * Publishes a slot claimed with `.tryClaim()` to consumers.
+     */
+    void commit(long position) {
+        sequences.set((int) position & mask, position + 1);
+    }
+
+    /**
+     * Takes the oldest filled slot for reading. Safe to call from several threads.
+     *
+     * @return The taken position, or `-1` if the ring is empty.
+     */
+    long tryTake() {
+        long position = dequeuePosition.get();
+        while (true) {
+            long difference = sequences.get((int) position & mask) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Frees a slot taken with `.tryTake()` for the producer.
+     */
+    void release(long position) {
+        sequences.set((int) position & mask, position + mask + 1);
+    }
+
+    boolean isEmpty() {
+        long position = dequeuePosition.get();
+        return sequences.get((int) position & mask) - (position + 1) < 0;
+    }
+
+    short[] frameAt(long position) {
+        return frames[(int) position & mask];
+    }
+
+    void clear() {
+        while (true) {
+            long position = tryTake();
+            if (position < 0) {
+                return;
+            }
+            release(position);
+        }
+    }
+}
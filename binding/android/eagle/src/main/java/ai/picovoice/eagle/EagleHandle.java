@@ -0,0 +1,83 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference-counted owner of a native object handle. Every native call runs between `.acquire()` and
+ * `.release()`, and `.close()` only drops the owner's reference, so the native object is freed by whichever thread
+ * finishes the last in-flight call. Once closed, new acquisitions fail. Uses atomics only; no lock is taken.
+ */
+abstract class EagleHandle {
+
+    private static final AtomicInteger NUM_LIVE = new AtomicInteger(0);
+
+    private final long handle;
+    private final AtomicInteger refCount = new AtomicInteger(1);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    EagleHandle(long handle) {
+        this.handle = handle;
+        NUM_LIVE.incrementAndGet();
+    }
+
+    static int getNumLive() {
+        return NUM_LIVE.get();
+    }
+
+    /**
+     * Adds a reference for the duration of a native call. Must be paired with `.release()` on success.
+     *
+     * @return The native handle, or 0 if the handle has been closed.
+     */
+    final long acquire() {
+        if (closed.get()) {
+            return 0;
+        }
+
+        while (true) {
+            int count = refCount.get();
+            if (count == 0) {
+                return 0;
+            }
+            if (refCount.compareAndSet(count, count + 1)) {
+                return handle;
+            }
+        }
+    }
+
+    final void release() {
+        if (refCount.decrementAndGet() == 0) {
+            free(handle);
+            NUM_LIVE.decrementAndGet();
+        }
+    }
+
+    /**
+     * Drops the owner's reference. Safe to call more than once and from any thread.
+     */
+    final void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    final boolean isClosed() {
+        return closed.get();
+    }
+
+    abstract void free(long handle);
+}
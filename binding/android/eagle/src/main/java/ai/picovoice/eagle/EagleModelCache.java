@@ -0,0 +1,215 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.Resources;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Extracts model files packaged with the app into its files directory. Every extracted file has a stamp file next
+ * to it that records where the file came from and which installation of the app produced it. Extraction is skipped
+ * when the stamp matches, so the model is copied once per app install or update rather than once per process start.
+ * Copies go through `FileChannel.transferFrom` in large chunks and are published with an atomic rename.
+ */
+final class EagleModelCache {
+
+    private static final int CHUNK_SIZE = 256 * 1024;
+    private static final String STAMP_SUFFIX = ".stamp";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private EagleModelCache() { }
+
+    /**
+     * Extracts a raw resource into the files directory, named after the resource entry with a `.pv` extension.
+     *
+     * @param context Android app context.
+     * @param resourceId Identifier of the raw resource.
+     * @return Absolute path of the extracted file.
+     * @throws IOException if the resource cannot be read or written.
+     */
+    static synchronized String extractRawResource(Context context, int resourceId) throws IOException {
+        final Resources resources = context.getResources();
+        final String filename = resources.getResourceEntryName(resourceId) + ".pv";
+        final File dstFile = new File(context.getFilesDir(), filename);
+        final String stamp = createStamp(context, "raw/" + filename);
+        if (isExtracted(dstFile, stamp)) {
+            return dstFile.getAbsolutePath();
+        }
+
+        AssetFileDescriptor fd = null;
+        try {
+            fd = resources.openRawResourceFd(resourceId);
+        } catch (Resources.NotFoundException ignored) {
+            // compressed resources cannot be opened as a file descriptor
+        }
+
+        if (fd != null) {
+            try {
+                extract(fd.createInputStream(), fd.getLength(), dstFile, stamp);
+            } finally {
+                fd.close();
+            }
+        } else {
+            extract(resources.openRawResource(resourceId), -1, dstFile, stamp);
+        }
+        return dstFile.getAbsolutePath();
+    }
+
+    /**
+     * Extracts a file from the app's assets into the files directory.
+     *
+     * @param context Android app context.
+     * @param assetPath Path of the file within the assets.
+     * @param dstFilename Name of the extracted file.
+     * @return Absolute path of the extracted file.
+     * @throws IOException if the asset cannot be read or written.
+     */
+    static synchronized String extractAsset(
+            Context context,
+            String assetPath,
+            String dstFilename) throws IOException {
+        final File dstFile = new File(context.getFilesDir(), dstFilename);
+        final String stamp = createStamp(context, "assets/" + assetPath);
+        if (isExtracted(dstFile, stamp)) {
+            return dstFile.getAbsolutePath();
+        }
+
+        AssetFileDescriptor fd = null;
+        try {
+            fd = context.getAssets().openFd(assetPath);
+        } catch (IOException ignored) {
+            // compressed assets cannot be opened as a file descriptor
+        }
+
+        if (fd != null) {
+            try {
+                extract(fd.createInputStream(), fd.getLength(), dstFile, stamp);
+            } finally {
+                fd.close();
+            }
+        } else {
+            extract(context.getAssets().open(assetPath), -1, dstFile, stamp);
+        }
+        return dstFile.getAbsolutePath();
+    }
+
+    private static String createStamp(Context context, String source) {
+        long lastUpdateTime;
+        try {
+            lastUpdateTime = context.getPackageManager()
+                    .getPackageInfo(context.getPackageName(), 0)
+                    .lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return null;
+        }
+        return source + "@" + lastUpdateTime;
+    }
+
+    private static boolean isExtracted(File dstFile, String stamp) {
+        if (stamp == null || !dstFile.isFile()) {
+            return false;
+        }
+
+        File stampFile = new File(dstFile.getPath() + STAMP_SUFFIX);
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(stampFile));
+            try {
+                boolean isSameSource = stamp.equals(reader.readLine());
+                return isSameSource && String.valueOf(dstFile.length()).equals(reader.readLine());
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void extract(
+            InputStream srcStream,
+            long srcLength,
+            File dstFile,
+            String stamp) throws IOException {
+        File stampFile = new File(dstFile.getPath() + STAMP_SUFFIX);
+        File tempFile = new File(dstFile.getPath() + TEMP_SUFFIX);
+
+        try {
+            // invalidate the old stamp first so an interrupted extraction is never mistaken for a complete one
+            if (stampFile.exists() && !stampFile.delete()) {
+                throw new IOException("Failed to delete " + stampFile.getAbsolutePath());
+            }
+
+            ReadableByteChannel src;
+            if (srcLength >= 0 && srcStream instanceof FileInputStream) {
+                src = ((FileInputStream) srcStream).getChannel();
+            } else {
+                srcLength = -1;
+                src = Channels.newChannel(new BufferedInputStream(srcStream, CHUNK_SIZE));
+            }
+
+            FileOutputStream os = new FileOutputStream(tempFile);
+            try {
+                FileChannel dst = os.getChannel();
+                long position = 0;
+                while (srcLength < 0 || position < srcLength) {
+                    long count = (srcLength < 0) ? CHUNK_SIZE : Math.min(CHUNK_SIZE, srcLength - position);
+                    long numTransferred = dst.transferFrom(src, position, count);
+                    if (numTransferred <= 0) {
+                        break;
+                    }
+                    position += numTransferred;
+                }
+
+                if (srcLength >= 0 && position != srcLength) {
+                    throw new IOException(String.format("Expected %d bytes but extracted %d", srcLength, position));
+                }
+                dst.force(false);
+            } finally {
+                os.close();
+            }
+        } finally {
+            // the source is closed even if the output file cannot be opened
+            srcStream.close();
+        }
+
+        if (!tempFile.renameTo(dstFile)) {
+            tempFile.delete();
+            throw new IOException("Failed to move extracted file to " + dstFile.getAbsolutePath());
+        }
+
+        if (stamp != null) {
+            Writer writer = new FileWriter(stampFile);
+            try {
+                writer.write(stamp + "\n" + dstFile.length() + "\n");
+            } finally {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Feeds interleaved multi-channel audio to Eagle. In `DOWNMIX` mode the channels are averaged into mono in a single
+ * pass and scored by one Eagle instance. In `PER_CHANNEL` mode the audio is de-interleaved and every channel is scored
+ * by its own Eagle instance borrowed from an `EaglePool`, with the channels processed in parallel. Chunks of any
+ * length are accepted; audio is handled in blocks through buffers allocated at build time, so unless an executor was
+ * set, `.feed()` allocates nothing apart from the scores array that the native layer returns for every processed
+ * frame. It is not thread-safe.
+ */
+public class EagleMultiChannelStream implements AutoCloseable {
+
+    private static final int BLOCK_LENGTH = 1024;
+
+    private final int numChannels;
+    private final EagleChannelMode mode;
+    private final EagleStream[] streams;
+    private final short[][] channelBlocks;
+    private final EagleParallelInvoker invoker;
+    private final EagleCleaner.Cleanable cleanable;
+
+    private int blockLength;
+    private boolean isDeleted = false;
+
+    private EagleMultiChannelStream(
+            int numChannels,
+            EagleChannelMode mode,
+            EaglePool pool,
+            EagleStream[] streams,
+            Executor executor) {
+        this.numChannels = numChannels;
+        this.mode = mode;
+        this.streams = streams;
+        this.channelBlocks = new short[streams.length][BLOCK_LENGTH];
+
+        if (mode == EagleChannelMode.PER_CHANNEL) {
+            EagleParallelInvoker.Task task = new EagleParallelInvoker.Task() {
+                @Override
+                public void run(int index) throws EagleException {
+                    EagleMultiChannelStream.this.streams[index].feed(channelBlocks[index], 0, blockLength);
+                }
+            };
+            if (executor != null) {
+                this.invoker = new EagleParallelInvoker(executor, streams.length, task);
+            } else {
+                this.invoker = new EagleParallelInvoker("EagleMultiChannelStream", streams.length, task);
+            }
+
+            Eagle[] engines = new Eagle[streams.length];
+            for (int i = 0; i < streams.length; i++) {
+                engines[i] = streams[i].getEagle();
+            }
+            this.cleanable = EagleCleaner.register(this, new Cleanup(pool, engines, invoker.getShutdownAction()));
+        } else {
+            this.invoker = null;
+            this.cleanable = null;
+        }
+    }
+
+    /**
+     * Feeds a chunk of interleaved audio. Every time a frame of a channel is complete it is processed and the callback
+     * is invoked before this call returns.
+     *
+     * @param pcm Interleaved audio samples. The audio needs to have a sample rate equal to `Eagle.getSampleRate()`
+     *            and be 16-bit linearly-encoded.
+     * @param offset Index of the first sample to consume.
+     * @param length Number of samples to consume, a multiple of the number of channels.
+     * @throws EagleException if there is an error while processing audio frames.
+     */
+    public void feed(short[] pcm, int offset, int length) throws EagleException {
+        if (isDeleted) {
+            throw new EagleInvalidStateException("Attempted to call eagle multi-channel stream feed after delete.");
+        }
+
+        if (pcm == null || offset < 0 || length < 0 || length > pcm.length - offset) {
+            throw new EagleInvalidArgumentException("Invalid audio range passed to EagleMultiChannelStream feed.");
+        }
+
+        if (length % numChannels != 0) {
+            throw new EagleInvalidArgumentException(
+                    String.format("Number of samples must be a multiple of the number of channels %d", numChannels));
+        }
+
+        int numSamples = length / numChannels;
+        while (numSamples > 0) {
+            blockLength = Math.min(numSamples, BLOCK_LENGTH);
+            if (mode == EagleChannelMode.DOWNMIX) {
+                downmix(pcm, offset, numChannels, channelBlocks[0], blockLength);
+                streams[0].feed(channelBlocks[0], 0, blockLength);
+            } else {
+                deinterleave(pcm, offset, numChannels, channelBlocks, blockLength);
+                invoker.invokeAll();
+            }
+            offset += blockLength * numChannels;
+            numSamples -= blockLength;
+        }
+    }
+
+    /**
+     * Discards partially buffered frames and resets the internal state of all Eagle instances.
+     *
+     * @throws EagleException if there is an error while resetting Eagle.
+     */
+    public void reset() throws EagleException {
+        for (EagleStream stream : streams) {
+            stream.reset();
+        }
+    }
+
+    /**
+     * Returns the Eagle instances borrowed in `PER_CHANNEL` mode to their pool, and stops the worker threads if they
+     * are owned by this instance. Safe to call more than once. Instances that are never deleted do the same after
+     * they are garbage collected.
+     */
+    public void delete() {
+        if (isDeleted) {
+            return;
+        }
+        isDeleted = true;
+
+        if (cleanable != null) {
+            cleanable.clean();
+        }
+    }
+
+    /**
+     * Returns the borrowed Eagle instances to their pool. Equivalent to `.delete()`, for use with try-with-resources.
+     */
+    @Override
+    public void close() {
+        delete();
+    }
+
+    /**
+     * Getter for the number of interleaved channels.
+     *
+     * @return Number of channels.
+     */
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    /**
+     * Getter for how channels are handled.
+     *
+     * @return The channel mode.
+     */
+    public EagleChannelMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Averages `length` interleaved samples of every channel, read from `pcm[offset]` onwards, into `mono`.
+     */
+    static void downmix(short[] pcm, int offset, int numChannels, short[] mono, int length) {
+        for (int i = 0; i < length; i++) {
+            int sum = 0;
+            int base = offset + (i * numChannels);
+            for (int c = 0; c < numChannels; c++) {
+                sum += pcm[base + c];
+            }
+            mono[i] = (short) (sum / numChannels);
+        }
+    }
+
+    /**
+     * Splits `length` interleaved samples of every channel, read from `pcm[offset]` onwards, into one array per
+     * channel.
+     */
+    static void deinterleave(short[] pcm, int offset, int numChannels, short[][] channels, int length) {
+        for (int c = 0; c < numChannels; c++) {
+            short[] channel = channels[c];
+            for (int i = 0, j = offset + c; i < length; i++, j += numChannels) {
+                channel[i] = pcm[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the borrowed engines to their pool and stops the workers, once. It does not reference the stream, so it
+     * can run after the stream has been garbage collected.
+     */
+    private static final class Cleanup implements Runnable {
+
+        private final EaglePool pool;
+        private final Eagle[] engines;
+        private final Runnable shutdown;
+        private final AtomicBoolean isDone = new AtomicBoolean(false);
+
+        Cleanup(EaglePool pool, Eagle[] engines, Runnable shutdown) {
+            this.pool = pool;
+            this.engines = engines;
+            this.shutdown = shutdown;
+        }
+
+        @Override
+        public void run() {
+            // a second release could hand back an engine that another stream has borrowed since
+            if (!isDone.compareAndSet(false, true)) {
+                return;
+            }
+
+            for (Eagle engine : engines) {
+                try {
+                    pool.release(engine);
+                } catch (EagleException ignored) {
+                    // the pool has been deleted, or has already deleted an engine it could not reset
+                }
+            }
+            shutdown.run();
+        }
+    }
+
+    /**
+     * Builder for creating instance of EagleMultiChannelStream.
+     */
+    public static class Builder {
+
+        private int numChannels = 0;
+        private EagleChannelMode mode = EagleChannelMode.DOWNMIX;
+        private Eagle eagle = null;
+        private EaglePool pool = null;
+        private EagleChannelCallback callback = null;
+        private Executor executor = null;
+
+        public Builder setNumChannels(int numChannels) {
+            this.numChannels = numChannels;
+            return this;
+        }
+
+        public Builder setMode(EagleChannelMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * Sets the Eagle instance that scores the downmixed audio. Required in `DOWNMIX` mode.
+         *
+         * @param eagle An instance of Eagle.
+         * @return This builder.
+         */
+        public Builder setEagle(Eagle eagle) {
+            this.eagle = eagle;
+            return this;
+        }
+
+        /**
+         * Sets the pool to borrow one Eagle instance per channel from. Required in `PER_CHANNEL` mode. The engines are
+         * returned to the pool by `.delete()`.
+         *
+         * @param pool A pool with at least as many available engines as there are channels.
+         * @return This builder.
+         */
+        public Builder setPool(EaglePool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        public Builder setCallback(EagleChannelCallback callback) {
+            this.callback = callback;
+            return this;
+        }
+
+        /**
+         * Sets the executor that processes all channels but the first one in `PER_CHANNEL` mode; the first channel
+         * always runs on the thread calling `.feed()`. If not set, every other channel gets a dedicated daemon thread
+         * that parks between blocks and is stopped on `.delete()`. An executor may allocate for every task it runs.
+         *
+         * @param executor Executor for the channels.
+         * @return This builder.
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Validates properties and creates an instance of EagleMultiChannelStream. In `PER_CHANNEL` mode this borrows
+         * one engine per channel from the pool without waiting.
+         *
+         * @return An instance of EagleMultiChannelStream
+         * @throws EagleException if any of the properties is invalid or the pool has too few available engines.
+         */
+        public EagleMultiChannelStream build() throws EagleException {
+            if (numChannels < 1) {
+                throw new EagleInvalidArgumentException("Number of channels must be at least 1");
+            }
+
+            if (mode == null) {
+                throw new EagleInvalidArgumentException("No channel mode was provided to EagleMultiChannelStream");
+            }
+
+            if (callback == null) {
+                throw new EagleInvalidArgumentException("No callback was provided to EagleMultiChannelStream");
+            }
+
+            if (mode == EagleChannelMode.DOWNMIX) {
+                if (eagle == null) {
+                    throw new EagleInvalidArgumentException("DOWNMIX mode requires an Eagle instance");
+                }
+
+                EagleStream[] streams = new EagleStream[]{ new EagleStream(eagle, channelCallback(callback, 0)) };
+                return new EagleMultiChannelStream(numChannels, mode, null, streams, null);
+            }
+
+            if (pool == null) {
+                throw new EagleInvalidArgumentException("PER_CHANNEL mode requires an EaglePool");
+            }
+
+            EagleStream[] streams = new EagleStream[numChannels];
+            try {
+                for (int c = 0; c < numChannels; c++) {
+                    Eagle engine = borrowNow(pool);
+                    if (engine == null) {
+                        throw new EagleInvalidStateException(String.format(
+                                "EaglePool does not have an available engine for each of the %d channels",
+                                numChannels));
+                    }
+
+                    try {
+                        streams[c] = new EagleStream(engine, channelCallback(callback, c));
+                    } catch (EagleException e) {
+                        pool.release(engine);
+                        throw e;
+                    }
+                }
+            } catch (EagleException e) {
+                for (EagleStream stream : streams) {
+                    if (stream != null) {
+                        pool.release(stream.getEagle());
+                    }
+                }
+                throw e;
+            }
+
+            return new EagleMultiChannelStream(numChannels, mode, pool, streams, executor);
+        }
+
+        private static Eagle borrowNow(EaglePool pool) throws EagleException {
+            try {
+                return pool.borrow(0, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EagleInvalidStateException("Interrupted while borrowing from EaglePool");
+            }
+        }
+
+        private static EagleStreamCallback channelCallback(final EagleChannelCallback callback, final int channel) {
+            return new EagleStreamCallback() {
+                @Override
+                public void onScores(float[] scores) throws EagleException {
+                    callback.onScores(channel, scores);
+                }
+            };
+        }
+    }
+}
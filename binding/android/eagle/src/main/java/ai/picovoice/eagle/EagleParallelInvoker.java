@@ -0,0 +1,269 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a fixed number of indexed tasks in parallel and waits for all of them. Task `0` runs on the calling thread and
+ * the others either on dedicated worker threads or on an executor. Dedicated workers are bound to one task each and
+ * park between invocations, so an invocation allocates nothing, which makes it suitable for per-frame fan-out. With an
+ * executor, allocation per invocation is up to the executor (e.g. a `ThreadPoolExecutor` allocates a queue node for
+ * every task). Invocations must not overlap.
+ * Workers only reference the shared invocation state, and only see the task while an invocation is running, so an
+ * owner that is dropped without `.shutdown()` can still be garbage collected and stop them with the action returned
+ * by `.getShutdownAction()`.
+ */
+final class EagleParallelInvoker {
+
+    /**
+     * A unit of work identified by its index.
+     */
+    interface Task {
+        void run(int index) throws EagleException;
+    }
+
+    private final Executor executor;
+    private final Task task;
+    private final int numTasks;
+    private final Runnable[] runnables;
+    private final State state;
+
+    /**
+     * Creates an invoker that runs tasks `1` to `numTasks - 1` on `executor`.
+     */
+    EagleParallelInvoker(Executor executor, int numTasks, Task task) {
+        this.executor = executor;
+        this.task = task;
+        this.numTasks = numTasks;
+        this.state = new State(new Thread[0]);
+        this.runnables = new Runnable[numTasks];
+        for (int i = 1; i < numTasks; i++) {
+            runnables[i] = new TaskRunner(state, i);
+        }
+    }
+
+    /**
+     * Creates an invoker that runs tasks `1` to `numTasks - 1` on dedicated daemon threads, which are stopped by
+     * `.shutdown()`.
+     */
+    EagleParallelInvoker(String name, int numTasks, Task task) {
+        this.executor = null;
+        this.task = task;
+        this.numTasks = numTasks;
+        this.runnables = null;
+
+        Thread[] workers = new Thread[Math.max(0, numTasks - 1)];
+        this.state = new State(workers);
+        for (int i = 1; i < numTasks; i++) {
+            Thread worker = new Thread(new Worker(state, i), name + "-" + i);
+            worker.setDaemon(true);
+            workers[i - 1] = worker;
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Runs every task and returns once all of them have completed.
+     *
+     * @throws EagleException the first error thrown by a task.
+     */
+    void invokeAll() throws EagleException {
+        if (state.isShutdown) {
+            throw new EagleInvalidStateException("Attempted to run parallel tasks after shutdown.");
+        }
+
+        state.error.set(null);
+        state.waiter = Thread.currentThread();
+        state.task = task;
+        state.numPending.set(numTasks - 1);
+
+        if (executor == null) {
+            // only the invoking thread writes the generation, since invocations do not overlap
+            state.generation = state.generation + 1;
+            for (Thread worker : state.workers) {
+                LockSupport.unpark(worker);
+            }
+        } else {
+            for (int i = 1; i < numTasks; i++) {
+                try {
+                    executor.execute(runnables[i]);
+                } catch (RejectedExecutionException e) {
+                    runnables[i].run();
+                }
+            }
+        }
+        state.runTask(0);
+
+        boolean interrupted = false;
+        while (state.numPending.get() != 0) {
+            LockSupport.park(state);
+            if (Thread.interrupted()) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        // idle workers must not keep the task, and with it the owner, reachable
+        state.task = null;
+        state.waiter = null;
+
+        Throwable cause = state.error.getAndSet(null);
+        if (cause != null) {
+            if (cause instanceof EagleException) {
+                throw (EagleException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new EagleException(cause);
+        }
+    }
+
+    /**
+     * Stops the dedicated worker threads once they are idle. Has no effect on an executor, which belongs to the
+     * caller. Safe to call more than once.
+     */
+    void shutdown() {
+        state.shutdown();
+    }
+
+    /**
+     * Returns an action equivalent to `.shutdown()` that does not reference the invoker or its task, for owners to
+     * register with `EagleCleaner`.
+     */
+    Runnable getShutdownAction() {
+        return new Shutdown(state);
+    }
+
+    int getNumTasks() {
+        return numTasks;
+    }
+
+    /**
+     * Everything the workers share with the invoking thread. It must not reference the owner of the invoker outside
+     * of an invocation.
+     */
+    private static final class State {
+
+        final Thread[] workers;
+        final AtomicInteger numPending = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        volatile Task task;
+        volatile Thread waiter;
+        volatile long generation = 0;
+        volatile boolean isShutdown = false;
+
+        State(Thread[] workers) {
+            this.workers = workers;
+        }
+
+        void shutdown() {
+            isShutdown = true;
+            for (Thread worker : workers) {
+                LockSupport.unpark(worker);
+            }
+        }
+
+        void runWorker(int index) {
+            long lastGeneration = 0;
+            while (true) {
+                long current = generation;
+                while (current == lastGeneration) {
+                    if (isShutdown) {
+                        return;
+                    }
+                    LockSupport.park(this);
+                    current = generation;
+                }
+                lastGeneration = current;
+                runAndCountDown(index);
+            }
+        }
+
+        void runAndCountDown(int index) {
+            Thread invoking = waiter;
+            runTask(index);
+            if (numPending.decrementAndGet() == 0) {
+                LockSupport.unpark(invoking);
+            }
+        }
+
+        void runTask(int index) {
+            try {
+                task.run(index);
+            } catch (Throwable t) {
+                error.compareAndSet(null, t);
+            }
+        }
+    }
+
+    private static final class Worker implements Runnable {
+
+        private final State state;
+        private final int index;
+
+        Worker(State state, int index) {
+            this.state = state;
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            state.runWorker(index);
+        }
+    }
+
+    private static final class TaskRunner implements Runnable {
+
+        private final State state;
+        private final int index;
+
+        TaskRunner(State state, int index) {
+            this.state = state;
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            state.runAndCountDown(index);
+        }
+    }
+
+    private static final class Shutdown implements Runnable {
+
+        private final State state;
+
+        Shutdown(State state) {
+            this.state = state;
+        }
+
+        @Override
+        public void run() {
+            state.shutdown();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import android.content.Context;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of pre-initialized Eagle instances that share one set of speaker profiles. Instances are created up
+ * front, so sessions can `.borrow()` an engine without paying model loading and license validation on the request
+ * path, and `.release()` it when done. Released engines are reset before they are handed out again.
+ * Use one pool per set of speaker profiles.
+ */
+public class EaglePool {
+
+    private final EagleProfile[] speakerProfiles;
+    private final List<Eagle> engines;
+    private final ArrayDeque<Eagle> idleEngines;
+    private final Set<Eagle> borrowedEngines;
+    private final Object lock = new Object();
+    private boolean isDeleted = false;
+
+    private EaglePool(EagleProfile[] speakerProfiles, List<Eagle> engines) {
+        this.speakerProfiles = speakerProfiles;
+        this.engines = engines;
+        this.idleEngines = new ArrayDeque<>(engines);
+        this.borrowedEngines = Collections.newSetFromMap(new IdentityHashMap<Eagle, Boolean>());
+    }
+
+    /**
+     * Takes an engine from the pool, waiting until one becomes available.
+     *
+     * @return An Eagle instance with a clean internal state.
+     * @throws EagleException if the pool has been deleted, including while waiting.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Eagle borrow() throws EagleException, InterruptedException {
+        synchronized (lock) {
+            checkNotDeleted();
+            while (idleEngines.isEmpty()) {
+                lock.wait();
+                checkNotDeleted();
+            }
+            return markBorrowed(idleEngines.poll());
+        }
+    }
+
+    /**
+     * Takes an engine from the pool, waiting up to the given time for one to become available.
+     *
+     * @param timeout Maximum time to wait.
+     * @param unit Time unit of `timeout`.
+     * @return An Eagle instance with a clean internal state, or `null` if none became available in time.
+     * @throws EagleException if the pool has been deleted, including while waiting.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Eagle borrow(long timeout, TimeUnit unit) throws EagleException, InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            checkNotDeleted();
+            while (idleEngines.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                checkNotDeleted();
+            }
+            return markBorrowed(idleEngines.poll());
+        }
+    }
+
+    /**
+     * Returns an engine to the pool. The engine is reset so that the next borrower starts a new stream.
+     * If the reset fails, the engine is deleted and removed from the pool.
+     *
+     * @param eagle An Eagle instance previously obtained via `.borrow()`.
+     * @throws EagleException if the pool has been deleted, `eagle` is not borrowed from this pool or it cannot be
+     *                        reset.
+     */
+    public void release(Eagle eagle) throws EagleException {
+        synchronized (lock) {
+            if (isDeleted) {
+                throw new EagleInvalidStateException("Attempted to release to eagle pool after delete.");
+            }
+
+            if (!borrowedEngines.remove(eagle)) {
+                throw new EagleInvalidArgumentException("Released Eagle instance is not borrowed from this pool.");
+            }
+        }
+
+        try {
+            eagle.reset();
+        } catch (EagleException e) {
+            eagle.delete();
+            synchronized (lock) {
+                engines.remove(eagle);
+                // waiters fail once the last engine is gone
+                lock.notifyAll();
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            if (isDeleted) {
+                // the pool was deleted while the engine was being reset, and has deleted the engine too
+                return;
+            }
+            idleEngines.add(eagle);
+            lock.notify();
+        }
+    }
+
+    /**
+     * Releases resources acquired by all engines of the pool. Engines should be released before the pool is deleted.
+     * Threads waiting in `.borrow()` are woken up and fail with an `EagleInvalidStateException`.
+     */
+    public void delete() {
+        synchronized (lock) {
+            isDeleted = true;
+            for (Eagle eagle : engines) {
+                eagle.delete();
+            }
+            engines.clear();
+            idleEngines.clear();
+            borrowedEngines.clear();
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Getter for the number of engines owned by the pool.
+     *
+     * @return Number of engines.
+     */
+    public int getSize() {
+        synchronized (lock) {
+            return engines.size();
+        }
+    }
+
+    /**
+     * Getter for the number of engines currently available for borrowing.
+     *
+     * @return Number of idle engines.
+     */
+    public int getNumAvailable() {
+        synchronized (lock) {
+            return idleEngines.size();
+        }
+    }
+
+    /**
+     * Getter for the speaker profiles shared by all engines of the pool.
+     *
+     * @return The speaker profiles.
+     */
+    public EagleProfile[] getSpeakerProfiles() {
+        return speakerProfiles.clone();
+    }
+
+    private Eagle markBorrowed(Eagle eagle) {
+        borrowedEngines.add(eagle);
+        return eagle;
+    }
+
+    private void checkNotDeleted() throws EagleException {
+        if (isDeleted || engines.isEmpty()) {
+            throw new EagleInvalidStateException("Attempted to borrow from eagle pool after delete.");
+        }
+    }
+
+    /**
+     * Builder for creating instance of EaglePool.
+     */
+    public static class Builder {
+
+        private String accessKey = null;
+        private String modelPath = null;
+        private EagleProfile[] speakerProfiles = null;
+        private int size = 1;
+        private int warmUpFrames = 0;
+
+        public Builder setAccessKey(String accessKey) {
+            this.accessKey = accessKey;
+            return this;
+        }
+
+        public Builder setModelPath(String modelPath) {
+            this.modelPath = modelPath;
+            return this;
+        }
+
+        public Builder setSpeakerProfiles(EagleProfile[] speakerProfiles) {
+            this.speakerProfiles = speakerProfiles;
+            return this;
+        }
+
+        public Builder setSpeakerProfile(EagleProfile speakerProfile) {
+            this.speakerProfiles = new EagleProfile[]{ speakerProfile };
+            return this;
+        }
+
+        public Builder setSize(int size) {
+            this.size = size;
+            return this;
+        }
+
+        public Builder setWarmUpFrames(int warmUpFrames) {
+            this.warmUpFrames = warmUpFrames;
+            return this;
+        }
+
+        /**
+         * Validates properties and creates a pool of Eagle instances. The first engine is created on the calling
+         * thread so that model extraction happens once; the remaining engines are initialized in parallel. If a
+         * number of warm-up frames is set, every engine is warmed up via `Eagle.warmUp()` before the pool is returned.
+         *
+         * @param context Android app context (for extracting Eagle resources)
+         * @return A pool of Eagle instances
+         * @throws EagleException if there is an error while initializing any of the engines.
+         */
+        public EaglePool build(final Context context) throws EagleException {
+            if (size < 1) {
+                throw new EagleInvalidArgumentException("EaglePool size must be at least 1");
+            }
+
+            if (warmUpFrames < 0) {
+                throw new EagleInvalidArgumentException("Number of warm-up frames cannot be negative");
+            }
+
+            if (speakerProfiles == null || speakerProfiles.length == 0) {
+                throw new EagleInvalidArgumentException("No speaker profiles provided to EaglePool");
+            }
+
+            final EagleProfile[] profiles = speakerProfiles.clone();
+            final Eagle.Builder eagleBuilder = new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(modelPath)
+                    .setSpeakerProfiles(profiles);
+
+            // the first build resolves and extracts the model, later builds only read the builder
+            final List<Eagle> engines = new ArrayList<>(size);
+            engines.add(buildEngine(eagleBuilder, context, warmUpFrames));
+
+            if (size > 1) {
+                int numThreads = Math.min(size - 1, Runtime.getRuntime().availableProcessors());
+                ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+                try {
+                    List<Future<Eagle>> futures = new ArrayList<>(size - 1);
+                    for (int i = 1; i < size; i++) {
+                        futures.add(executor.submit(new Callable<Eagle>() {
+                            @Override
+                            public Eagle call() throws EagleException {
+                                return buildEngine(eagleBuilder, context, warmUpFrames);
+                            }
+                        }));
+                    }
+
+                    EagleException error = null;
+                    for (Future<Eagle> future : futures) {
+                        try {
+                            engines.add(getUninterruptibly(future));
+                        } catch (ExecutionException e) {
+                            if (error == null) {
+                                error = toEagleException(e.getCause());
+                            }
+                        }
+                    }
+
+                    if (error != null) {
+                        for (Eagle eagle : engines) {
+                            eagle.delete();
+                        }
+                        throw error;
+                    }
+                } finally {
+                    executor.shutdown();
+                }
+            }
+
+            return new EaglePool(profiles, engines);
+        }
+
+        private static Eagle buildEngine(
+                Eagle.Builder eagleBuilder,
+                Context context,
+                int warmUpFrames) throws EagleException {
+            Eagle eagle = eagleBuilder.build(context);
+            if (warmUpFrames > 0) {
+                try {
+                    eagle.warmUp(warmUpFrames);
+                } catch (EagleException e) {
+                    eagle.delete();
+                    throw e;
+                }
+            }
+            return eagle;
+        }
+
+        private static <T> T getUninterruptibly(Future<T> future) throws ExecutionException {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return future.get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private static EagleException toEagleException(Throwable cause) {
+            if (cause instanceof EagleException) {
+                return (EagleException) cause;
+            }
+            return new EagleException(cause);
+        }
+    }
+}
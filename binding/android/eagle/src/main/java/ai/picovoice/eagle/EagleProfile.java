@@ -12,10 +12,14 @@
 
 package ai.picovoice.eagle;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * Representation of an Eagle speaker profile.
  */
-public class EagleProfile {
+public class EagleProfile implements AutoCloseable {
 
     static {
         System.loadLibrary("pv_eagle");
@@ -23,8 +27,13 @@ public class EagleProfile {
 
     final EagleProfileNative profileNative;
 
+    private final EagleCleaner.Cleanable cleanable;
+
+    private volatile ByteBuffer cachedBytes;
+
     EagleProfile(EagleProfileNative profileNative) {
         this.profileNative = profileNative;
+        this.cleanable = EagleCleaner.register(this, profileNative.handle);
     }
 
     /**
@@ -34,6 +43,7 @@ public class EagleProfile {
      */
     public EagleProfile(byte[] profileBytes) {
         profileNative = new EagleProfileNative(profileBytes);
+        cleanable = EagleCleaner.register(this, profileNative.handle);
     }
 
     /**
@@ -42,13 +52,73 @@ public class EagleProfile {
      * @return the speaker profile in the form of a byte array.
      */
     public byte[] getBytes() {
-        return profileNative.getBytes();
+        ByteBuffer buffer = asReadOnlyBuffer();
+        byte[] profileBytes = new byte[buffer.remaining()];
+        buffer.get(profileBytes);
+        return profileBytes;
+    }
+
+    /**
+     * Gets a read-only view of the speaker profile bytes. The bytes are fetched from the native profile once and
+     * cached in a direct buffer, so repeated calls neither cross JNI nor copy the profile. Each call returns an
+     * independent view positioned at the start of the profile.
+     *
+     * @return A read-only buffer holding the speaker profile.
+     */
+    public ByteBuffer asReadOnlyBuffer() {
+        if (profileNative.handle.isClosed()) {
+            throw new IllegalStateException("Attempted to get eagle profile bytes after delete.");
+        }
+
+        ByteBuffer buffer = cachedBytes;
+        if (buffer == null) {
+            byte[] profileBytes = profileNative.getBytes();
+            ByteBuffer direct = ByteBuffer.allocateDirect(profileBytes.length);
+            direct.put(profileBytes);
+            direct.flip();
+            buffer = direct.asReadOnlyBuffer();
+            cachedBytes = buffer;
+            if (profileNative.handle.isClosed()) {
+                // deleted while the bytes were being copied, do not keep them around
+                cachedBytes = null;
+                throw new IllegalStateException("Attempted to get eagle profile bytes after delete.");
+            }
+        }
+        return buffer.duplicate();
     }
 
     /**
-     * Releases resources acquired by EagleProfile.
+     * Writes the speaker profile bytes to a channel, e.g. a `FileChannel` or a `SocketChannel`, straight from the
+     * cached buffer returned by `.asReadOnlyBuffer()`.
+     *
+     * @param channel Channel to write to.
+     * @return Number of bytes written, which is the size of the profile.
+     * @throws IOException if the channel cannot be written.
+     */
+    public int writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = asReadOnlyBuffer();
+        int numBytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return numBytes;
+    }
+
+    /**
+     * Releases resources acquired by EagleProfile, including the cached copy of the profile bytes. Safe to call more
+     * than once. Profiles that are never deleted are released after they are garbage collected, but explicit deletion
+     * frees native memory promptly.
      */
     public void delete() {
-        profileNative.delete();
+        cleanable.clean();
+        cachedBytes = null;
+    }
+
+    /**
+     * Releases resources acquired by EagleProfile. Equivalent to `.delete()`, for use with try-with-resources.
+     */
+    @Override
+    public void close() {
+        delete();
     }
 }
@@ -14,25 +14,34 @@ package ai.picovoice.eagle;
 
 class EagleProfileNative {
 
-    final long handle;
+    final EagleHandle handle;
     final int numBytes;
 
     public EagleProfileNative(long handle, int numBytes) {
-        this.handle = handle;
+        this.handle = new Handle(handle);
         this.numBytes = numBytes;
     }
 
     public EagleProfileNative(byte[] profileBytes) {
-        this.handle = setBytesNative(profileBytes, profileBytes.length);
+        this.handle = new Handle(setBytesNative(profileBytes, profileBytes.length));
         this.numBytes = profileBytes.length;
     }
 
     public byte[] getBytes() {
-        return getBytesNative(this.handle, this.numBytes);
+        long nativeHandle = handle.acquire();
+        if (nativeHandle == 0) {
+            throw new IllegalStateException("Attempted to get eagle profile bytes after delete.");
+        }
+
+        try {
+            return getBytesNative(nativeHandle, this.numBytes);
+        } finally {
+            handle.release();
+        }
     }
 
     public void delete() {
-        deleteNative(this.handle);
+        handle.close();
     }
 
     private native void deleteNative(long handle);
@@ -40,4 +49,16 @@ class EagleProfileNative {
     private native byte[] getBytesNative(long handle, int numBytes);
 
     private native long setBytesNative(byte[] metadataBytes, int numBytes);
+
+    private final class Handle extends EagleHandle {
+
+        Handle(long handle) {
+            super(handle);
+        }
+
+        @Override
+        void free(long handle) {
+            deleteNative(handle);
+        }
+    }
 }
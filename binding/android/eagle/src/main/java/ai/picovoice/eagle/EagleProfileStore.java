@@ -0,0 +1,517 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent repository of speaker profiles keyed by speaker id. Profiles are kept in an append-only file that is
+ * read through a memory mapping, with an in-memory index from speaker id to record offset. Lookups are O(1), bulk
+ * loading copies every profile straight out of the mapping, and overwritten or removed entries are reclaimed by
+ * `.compact()`. The mapping grows geometrically, so appending does not remap the file; records appended since it
+ * was last mapped are read through the file channel. All methods are thread-safe.
+ */
+public class EagleProfileStore implements Closeable {
+
+    private static final int MAGIC = 0x45505354;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 4 + 1 + 2;
+    private static final byte RECORD_LIVE = 1;
+    private static final byte RECORD_DELETED = 0;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final Map<String, Long> index = new HashMap<>();
+
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer mapping;
+    private long numDeletedBytes;
+
+    private EagleProfileStore(File file) throws IOException {
+        this.file = file;
+        openFile();
+    }
+
+    /**
+     * Opens a profile store, creating the file if it does not exist. A record left incomplete by an interrupted
+     * write is discarded.
+     *
+     * @param file File that holds the profiles.
+     * @return The opened store.
+     * @throws EagleException if the file cannot be opened or is not a profile store.
+     */
+    public static EagleProfileStore open(File file) throws EagleException {
+        if (file == null) {
+            throw new EagleInvalidArgumentException("No file was provided to EagleProfileStore");
+        }
+
+        try {
+            return new EagleProfileStore(file);
+        } catch (IOException e) {
+            throw new EagleIOException(e);
+        }
+    }
+
+    /**
+     * Stores a profile under the given speaker id, replacing any profile previously stored under it. The profile is
+     * written with `EagleProfile.writeTo()`. If the write fails part way, the incomplete record is cut off and the
+     * store is left as it was.
+     *
+     * @param speakerId Speaker id. Its UTF-8 encoding must not exceed 65535 bytes.
+     * @param profile Speaker profile to store.
+     * @throws EagleException if the arguments are invalid or the profile cannot be written.
+     */
+    public synchronized void put(String speakerId, EagleProfile profile) throws EagleException {
+        checkOpen();
+        if (speakerId == null || profile == null) {
+            throw new EagleInvalidArgumentException("Speaker id and profile must not be null");
+        }
+
+        byte[] id = speakerId.getBytes(UTF_8);
+        if (id.length > 0xFFFF) {
+            throw new EagleInvalidArgumentException("Speaker id is too long");
+        }
+        int profileLength = profile.asReadOnlyBuffer().remaining();
+
+        try {
+            long offset = channel.size();
+            ByteBuffer recordHeader = ByteBuffer
+                    .allocate(RECORD_HEADER_SIZE + id.length)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            recordHeader.putInt(id.length + profileLength);
+            recordHeader.put(RECORD_LIVE);
+            recordHeader.putShort((short) id.length);
+            recordHeader.put(id);
+            recordHeader.flip();
+            long profileOffset = offset + recordHeader.remaining();
+            try {
+                writeFully(recordHeader, offset);
+                channel.position(profileOffset);
+                if (profile.writeTo(channel) != profileLength) {
+                    throw new IOException("Speaker profile changed while it was being stored");
+                }
+            } catch (IOException | RuntimeException e) {
+                discardFrom(offset);
+                throw e;
+            }
+
+            Long previous = index.put(speakerId, offset);
+            if (previous != null) {
+                markDeleted(previous);
+            }
+        } catch (IOException e) {
+            throw new EagleIOException(e);
+        }
+    }
+
+    /**
+     * Gets the profile stored under the given speaker id.
+     *
+     * @param speakerId Speaker id.
+     * @return A new EagleProfile, or `null` if no profile is stored under `speakerId`. The caller owns the profile.
+     * @throws EagleException if the store cannot be read.
+     */
+    public synchronized EagleProfile get(String speakerId) throws EagleException {
+        checkOpen();
+        Long offset = index.get(speakerId);
+        if (offset == null) {
+            return null;
+        }
+
+        try {
+            return new EagleProfile(readProfileBytes(readRecord(offset)));
+        } catch (IOException e) {
+            throw new EagleIOException(e);
+        }
+    }
+
+    /**
+     * Removes the profile stored under the given speaker id. The space is reclaimed by `.compact()`.
+     *
+     * @param speakerId Speaker id.
+     * @return `true` if a profile was removed.
+     * @throws EagleException if the store cannot be written.
+     */
+    public synchronized boolean remove(String speakerId) throws EagleException {
+        checkOpen();
+        Long offset = index.remove(speakerId);
+        if (offset == null) {
+            return false;
+        }
+
+        try {
+            markDeleted(offset);
+        } catch (IOException e) {
+            throw new EagleIOException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a profile is stored under the given speaker id.
+     *
+     * @param speakerId Speaker id.
+     * @return `true` if a profile is stored under `speakerId`.
+     */
+    public synchronized boolean contains(String speakerId) {
+        return index.containsKey(speakerId);
+    }
+
+    /**
+     * Getter for the number of stored profiles.
+     *
+     * @return Number of stored profiles.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Getter for the ids of all stored profiles.
+     *
+     * @return A copy of the set of speaker ids.
+     */
+    public synchronized Set<String> getSpeakerIds() {
+        return new LinkedHashSet<>(index.keySet());
+    }
+
+    /**
+     * Getter for the number of bytes held by overwritten or removed records, i.e. what `.compact()` would reclaim.
+     *
+     * @return Number of reclaimable bytes.
+     */
+    public synchronized long getNumDeletedBytes() {
+        return numDeletedBytes;
+    }
+
+    /**
+     * Loads every stored profile in a single pass over the memory-mapped file.
+     *
+     * @return Map from speaker id to a new EagleProfile, in the order the profiles were stored. The caller owns
+     *         the profiles.
+     * @throws EagleException if the store cannot be read.
+     */
+    public synchronized Map<String, EagleProfile> loadAll() throws EagleException {
+        checkOpen();
+        Map<String, EagleProfile> profiles = new LinkedHashMap<>();
+        try {
+            long position = FILE_HEADER_SIZE;
+            long end = channel.size();
+            while (position < end) {
+                ByteBuffer record = readRecord(position);
+                if (isCurrent(record, position)) {
+                    profiles.put(readSpeakerId(record, 0), new EagleProfile(readProfileBytes(record)));
+                }
+                position += record.limit();
+            }
+        } catch (IOException e) {
+            throw new EagleIOException(e);
+        }
+        return profiles;
+    }
+
+    /**
+     * Rewrites the store without overwritten or removed records. The new file replaces the old one atomically. If
+     * it cannot be replaced, the store keeps using the old file.
+     *
+     * @throws EagleException if the store cannot be rewritten, or the rewritten file cannot be opened. The store is
+     *                        closed in the latter case.
+     */
+    public synchronized void compact() throws EagleException {
+        checkOpen();
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            RandomAccessFile tempRaf = new RandomAccessFile(tempFile, "rw");
+            try {
+                tempRaf.setLength(0);
+                FileChannel tempChannel = tempRaf.getChannel();
+                ByteBuffer header = createFileHeader();
+                while (header.hasRemaining()) {
+                    tempChannel.write(header);
+                }
+
+                long position = FILE_HEADER_SIZE;
+                long end = channel.size();
+                while (position < end) {
+                    ByteBuffer record = readRecord(position);
+                    if (isCurrent(record, position)) {
+                        while (record.hasRemaining()) {
+                            tempChannel.write(record);
+                        }
+                    }
+                    position += record.limit();
+                }
+                tempChannel.force(true);
+            } finally {
+                tempRaf.close();
+            }
+
+            // the open handles keep referring to the old file, so a failed rename leaves the store usable
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Failed to replace " + file.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            throw new EagleIOException(e);
+        }
+
+        RandomAccessFile oldRaf = raf;
+        raf = null;
+        channel = null;
+        try {
+            openFile();
+        } catch (IOException e) {
+            throw new EagleIOException(e);
+        } finally {
+            closeQuietly(oldRaf);
+        }
+    }
+
+    /**
+     * Forces all changes to the storage device.
+     *
+     * @throws EagleException if the changes cannot be written.
+     */
+    public synchronized void flush() throws EagleException {
+        checkOpen();
+        try {
+            channel.force(true);
+        } catch (IOException e) {
+            throw new EagleIOException(e);
+        }
+    }
+
+    /**
+     * Closes the store. Further calls other than `.close()` fail.
+     */
+    @Override
+    public synchronized void close() {
+        closeFile();
+    }
+
+    private void openFile() throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        index.clear();
+        numDeletedBytes = 0;
+        mapping = null;
+
+        try {
+            if (channel.size() == 0) {
+                writeFully(createFileHeader(), 0);
+            }
+
+            MappedByteBuffer buffer = map();
+            boolean hasHeader = buffer.limit() >= FILE_HEADER_SIZE;
+            if (!hasHeader || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(file.getAbsolutePath() + " is not an Eagle profile store");
+            }
+
+            long position = FILE_HEADER_SIZE;
+            long end = buffer.limit();
+            while (position < end) {
+                if (end - position < RECORD_HEADER_SIZE) {
+                    break;
+                }
+                int recordLength = buffer.getInt((int) position);
+                int idLength = buffer.getShort((int) position + 5) & 0xFFFF;
+                if (recordLength < idLength || end - position - RECORD_HEADER_SIZE < recordLength) {
+                    break;
+                }
+
+                if (buffer.get((int) position + 4) == RECORD_LIVE) {
+                    Long previous = index.put(readSpeakerId(buffer, position), position);
+                    if (previous != null) {
+                        numDeletedBytes += RECORD_HEADER_SIZE + buffer.getInt(previous.intValue());
+                    }
+                } else {
+                    numDeletedBytes += RECORD_HEADER_SIZE + recordLength;
+                }
+                position += RECORD_HEADER_SIZE + recordLength;
+            }
+
+            if (position < end) {
+                // drop a record that was cut short by an interrupted write
+                channel.truncate(position);
+                mapping = null;
+            }
+        } catch (IOException e) {
+            closeFile();
+            throw e;
+        }
+    }
+
+    private void closeFile() {
+        mapping = null;
+        index.clear();
+        if (raf != null) {
+            closeQuietly(raf);
+            raf = null;
+            channel = null;
+        }
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        try {
+            file.close();
+        } catch (IOException ignored) {
+            // nothing to recover from when closing
+        }
+    }
+
+    private void checkOpen() throws EagleException {
+        if (channel == null) {
+            throw new EagleInvalidStateException("Attempted to use eagle profile store after close.");
+        }
+    }
+
+    /**
+     * Maps the file again only once it has doubled in size since it was last mapped. Android cannot unmap a buffer,
+     * so every remap leaves the old mapping in the address space until it is garbage collected; growing
+     * geometrically keeps both the remapping work and the number of stale mappings logarithmic in the file size.
+     * Status bytes rewritten in place stay visible through the mapping, as both go through the page cache.
+     */
+    private MappedByteBuffer map() throws IOException {
+        long size = channel.size();
+        if (mapping == null || size >= 2L * mapping.limit()) {
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapping.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return mapping;
+    }
+
+    /**
+     * Returns the record at `position` as a buffer that starts at the record header. Records inside the mapping are
+     * sliced out of it, and records past its end are read through the channel.
+     */
+    private ByteBuffer readRecord(long position) throws IOException {
+        MappedByteBuffer buffer = map();
+        long mappedEnd = buffer.limit();
+        if (mappedEnd - position >= RECORD_HEADER_SIZE) {
+            int recordSize = RECORD_HEADER_SIZE + buffer.getInt((int) position);
+            if (mappedEnd - position >= recordSize) {
+                ByteBuffer record = buffer.duplicate();
+                record.limit((int) position + recordSize);
+                record.position((int) position);
+                return record.slice().order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, position);
+        ByteBuffer record = ByteBuffer
+                .allocate(RECORD_HEADER_SIZE + header.getInt(0))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        readFully(record, position);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * A live record is current unless a later record for the same speaker id was appended and the write that
+     * marks this one deleted was interrupted.
+     */
+    private boolean isCurrent(ByteBuffer record, long position) {
+        if (record.get(4) != RECORD_LIVE) {
+            return false;
+        }
+        Long offset = index.get(readSpeakerId(record, 0));
+        return offset != null && offset == position;
+    }
+
+    private void markDeleted(long offset) throws IOException {
+        ByteBuffer status = ByteBuffer.allocate(1);
+        status.put(RECORD_DELETED);
+        status.flip();
+        writeFully(status, offset + 4);
+
+        ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(length, offset);
+        numDeletedBytes += RECORD_HEADER_SIZE + length.getInt(0);
+    }
+
+    /**
+     * Cuts off a record whose write failed part way, so that later appends do not land after it. If the file cannot
+     * be truncated, the store is closed instead, and the record is dropped the next time the store is opened.
+     */
+    private void discardFrom(long offset) {
+        try {
+            channel.truncate(offset);
+            if (mapping != null && mapping.limit() > offset) {
+                mapping = null;
+            }
+        } catch (IOException e) {
+            closeFile();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int numRead = channel.read(buffer, position);
+            if (numRead < 0) {
+                throw new IOException("Unexpected end of profile store");
+            }
+            position += numRead;
+        }
+    }
+
+    private static ByteBuffer createFileHeader() {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(0);
+        header.flip();
+        return header;
+    }
+
+    private static String readSpeakerId(ByteBuffer buffer, long position) {
+        int idLength = buffer.getShort((int) position + 5) & 0xFFFF;
+        byte[] id = new byte[idLength];
+        for (int i = 0; i < idLength; i++) {
+            id[i] = buffer.get((int) position + RECORD_HEADER_SIZE + i);
+        }
+        return new String(id, UTF_8);
+    }
+
+    private static byte[] readProfileBytes(ByteBuffer record) {
+        int recordLength = record.getInt(0);
+        int idLength = record.getShort(5) & 0xFFFF;
+        ByteBuffer view = record.duplicate();
+        view.position(RECORD_HEADER_SIZE + idLength);
+        byte[] profileBytes = new byte[recordLength - idLength];
+        view.get(profileBytes);
+        return profileBytes;
+    }
+}
@@ -13,22 +13,19 @@
 package ai.picovoice.eagle;
 
 import android.content.Context;
-import android.content.res.Resources;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Android binding for the profiler of the Eagle speaker recognition engine.
  * It enrolls a speaker given a set of utterances and then constructs a profile for the enrolled speaker.
  */
-public class EagleProfiler {
-
-    private static String defaultModelPath;
+public class EagleProfiler implements AutoCloseable {
 
     private final int minEnrollSamples;
 
@@ -36,7 +33,8 @@ public class EagleProfiler {
         System.loadLibrary("pv_eagle");
     }
 
-    private long handle;
+    private final EagleHandle handle;
+    private final EagleCleaner.Cleanable cleanable;
 
     /**
      * Constructor.
@@ -46,18 +44,26 @@ public class EagleProfiler {
      * @throws EagleException if there is an error while initializing EagleProfiler.
      */
     private EagleProfiler(String accessKey, String modelPath) throws EagleException {
-        handle = EagleProfilerNative.init(accessKey, modelPath);
-        minEnrollSamples = EagleProfilerNative.minEnrollSamples(handle);
+        long nativeHandle = EagleProfilerNative.init(accessKey, modelPath);
+        handle = new Handle(nativeHandle);
+        cleanable = EagleCleaner.register(this, handle);
+        minEnrollSamples = EagleProfilerNative.minEnrollSamples(nativeHandle);
     }
 
     /**
-     * Releases resources acquired by Eagle.
+     * Releases resources acquired by EagleProfiler. Safe to call more than once. Instances that are never deleted are
+     * released after they are garbage collected, but explicit deletion frees native memory promptly.
      */
     public void delete() {
-        if (handle != 0) {
-            EagleProfilerNative.delete(handle);
-            handle = 0;
-        }
+        cleanable.clean();
+    }
+
+    /**
+     * Releases resources acquired by EagleProfiler. Equivalent to `.delete()`, for use with try-with-resources.
+     */
+    @Override
+    public void close() {
+        delete();
     }
 
     /**
@@ -77,11 +83,12 @@ public class EagleProfiler {
      * @throws EagleException if there is an error while enrolling speaker.
      */
     public EagleProfilerEnrollResult enroll(short[] pcm) throws EagleException {
-        if (handle == 0) {
-            throw new EagleInvalidStateException("Attempted to call eagle enroll after delete.");
+        long nativeHandle = acquireHandle("enroll");
+        try {
+            return EagleProfilerNative.enroll(nativeHandle, pcm, pcm.length);
+        } finally {
+            handle.release();
         }
-
-        return EagleProfilerNative.enroll(handle, pcm, pcm.length);
     }
 
     /**
@@ -90,22 +97,38 @@ public class EagleProfiler {
      * @return An EagleProfile object.
      */
     public EagleProfile export() throws EagleException {
-        if (handle == 0) {
-            throw new EagleInvalidStateException("Attempted to call eagle profile export after delete.");
+        long nativeHandle = acquireHandle("profile export");
+        try {
+            return new EagleProfile(EagleProfilerNative.export(nativeHandle));
+        } finally {
+            handle.release();
         }
-
-        return new EagleProfile(EagleProfilerNative.export(handle));
     }
 
     /**
      * Resets the internal state of Eagle Profiler. It should be called before starting a new enrollment session.
      */
     public void reset() throws EagleException {
-        if (handle == 0) {
-            throw new EagleInvalidStateException("Attempted to call eagle reset after delete.");
+        long nativeHandle = acquireHandle("reset");
+        try {
+            EagleProfilerNative.reset(nativeHandle);
+        } finally {
+            handle.release();
         }
+    }
 
-        EagleProfilerNative.reset(handle);
+    /**
+     * Runs one synthetic enrollment through the profiler so that the first real `.enroll()` does not pay one-time
+     * costs such as lazy allocations and cold caches, then resets the internal state. Since it resets the profiler,
+     * call it before starting an enrollment session.
+     *
+     * @throws EagleException if there is an error while enrolling or resetting.
+     */
+    public void warmUp() throws EagleException {
+        short[] pcm = new short[minEnrollSamples];
+        Eagle.fillWarmUpAudio(pcm);
+        enroll(pcm);
+        reset();
     }
 
     /**
@@ -135,11 +158,34 @@ public class EagleProfiler {
         return this.minEnrollSamples;
     }
 
+    private long acquireHandle(String method) throws EagleException {
+        long nativeHandle = handle.acquire();
+        if (nativeHandle == 0) {
+            throw new EagleInvalidStateException(
+                    String.format("Attempted to call eagle %s after delete.", method));
+        }
+        return nativeHandle;
+    }
+
+    private static final class Handle extends EagleHandle {
+
+        Handle(long handle) {
+            super(handle);
+        }
+
+        @Override
+        void free(long handle) {
+            EagleProfilerNative.delete(handle);
+        }
+    }
+
     /**
      * Builder for creating instance of EagleProfiler.
      */
     public static class Builder {
 
+        private static String defaultModelPath;
+
         private String accessKey = null;
         private String modelPath = null;
 
@@ -153,36 +199,20 @@ public class EagleProfiler {
             return this;
         }
 
-        private static void extractPackageResources(Context context) throws EagleIOException {
-            final Resources resources = context.getResources();
+        private Builder copy() {
+            return new Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(modelPath);
+        }
 
+        private static void extractPackageResources(Context context) throws EagleIOException {
             try {
-                defaultModelPath = extractResource(context,
-                        resources.openRawResource(R.raw.eagle_params),
-                        resources.getResourceEntryName(R.raw.eagle_params) + ".pv");
+                defaultModelPath = EagleModelCache.extractRawResource(context, R.raw.eagle_params);
             } catch (IOException ex) {
                 throw new EagleIOException(ex);
             }
         }
 
-        private static String extractResource(
-                Context context,
-                InputStream srcFileStream,
-                String dstFilename
-        ) throws IOException {
-            InputStream is = new BufferedInputStream(srcFileStream, 256);
-            OutputStream os = new BufferedOutputStream(context.openFileOutput(dstFilename, Context.MODE_PRIVATE), 256);
-            int r;
-            while ((r = is.read()) != -1) {
-                os.write(r);
-            }
-            os.flush();
-
-            is.close();
-            os.close();
-            return new File(context.getFilesDir(), dstFilename).getAbsolutePath();
-        }
-
         /**
          * Validates properties and creates an instance of the Eagle profiler.
          *
@@ -191,10 +221,60 @@ public class EagleProfiler {
          * @throws EagleException if there is an error while initializing Eagle profiler.
          */
         public EagleProfiler build(Context context) throws EagleException {
+            return buildWithProgress(context, null);
+        }
+
+        /**
+         * Creates an instance of the Eagle profiler on the given executor. Model extraction, native library loading
+         * and engine initialization all run on the executor, so the calling thread is never blocked.
+         * The builder's properties are captured when this method is called.
+         *
+         * @param context Android app context (for extracting Eagle resources)
+         * @param executor Executor that runs the build.
+         * @return A Future that completes with the new instance. If the build fails, `Future.get()` throws an
+         *         `ExecutionException` whose cause is the `EagleException`.
+         */
+        public Future<EagleProfiler> buildAsync(Context context, Executor executor) {
+            return buildAsync(context, executor, null);
+        }
+
+        /**
+         * Creates an instance of the Eagle profiler on the given executor, reporting each build stage to a callback.
+         * The builder's properties are captured when this method is called.
+         *
+         * @param context Android app context (for extracting Eagle resources)
+         * @param executor Executor that runs the build.
+         * @param progressCallback Optional callback that is notified as each `EagleBuildStage` starts.
+         * @return A Future that completes with the new instance. If the build fails, `Future.get()` throws an
+         *         `ExecutionException` whose cause is the `EagleException`.
+         */
+        public Future<EagleProfiler> buildAsync(
+                final Context context,
+                Executor executor,
+                final EagleBuildProgressCallback progressCallback) {
+            if (executor == null) {
+                throw new IllegalArgumentException("No executor was provided to buildAsync");
+            }
+
+            final Builder snapshot = copy();
+            FutureTask<EagleProfiler> task = new FutureTask<>(new Callable<EagleProfiler>() {
+                @Override
+                public EagleProfiler call() throws EagleException {
+                    return snapshot.buildWithProgress(context, progressCallback);
+                }
+            });
+            executor.execute(task);
+            return task;
+        }
+
+        private EagleProfiler buildWithProgress(
+                Context context,
+                EagleBuildProgressCallback progressCallback) throws EagleException {
             if (accessKey == null || this.accessKey.equals("")) {
                 throw new EagleInvalidArgumentException("No AccessKey was provided to Eagle");
             }
 
+            notifyStage(progressCallback, EagleBuildStage.EXTRACT);
             if (modelPath == null) {
                 if (defaultModelPath == null) {
                     extractPackageResources(context);
@@ -205,8 +285,8 @@ public class EagleProfiler {
                 String modelFilename = modelFile.getName();
                 if (!modelFile.exists() && !modelFilename.equals("")) {
                     try {
-                        modelPath = extractResource(context,
-                                context.getAssets().open(modelPath),
+                        modelPath = EagleModelCache.extractAsset(context,
+                                modelPath,
                                 modelFilename);
                     } catch (IOException ex) {
                         throw new EagleIOException(ex);
@@ -214,8 +294,18 @@ public class EagleProfiler {
                 }
             }
 
+            notifyStage(progressCallback, EagleBuildStage.LOAD);
+            System.loadLibrary("pv_eagle");
+
+            notifyStage(progressCallback, EagleBuildStage.INIT);
             return new EagleProfiler(accessKey, modelPath);
         }
+
+        private static void notifyStage(EagleBuildProgressCallback progressCallback, EagleBuildStage stage) {
+            if (progressCallback != null) {
+                progressCallback.onStage(stage);
+            }
+        }
     }
 
 }
@@ -0,0 +1,252 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Streaming sample rate converter for feeding audio at other rates (e.g. 8, 44.1 or 48 kHz) to Eagle and
+ * EagleProfiler, which require `getSampleRate()`. The conversion ratio is reduced to `L/M` by the greatest common
+ * divisor of the rates. Output is computed by a polyphase FIR filter: a Kaiser-windowed sinc low-pass split into `L`
+ * phases, of which only the one needed for each output sample is evaluated. The cutoff sits just below the lower of
+ * the two Nyquist frequencies, so downsampling does not alias. Chunks of any length can be passed to `.process()`, and
+ * filter state carries over between calls. Nothing is allocated after construction. It is not thread-safe.
+ */
+public class EagleResampler {
+
+    private static final int DEFAULT_NUM_ZERO_CROSSINGS = 16;
+    private static final double ROLLOFF = 0.92;
+    private static final double KAISER_BETA = 8.0;
+    private static final int BLOCK_SIZE = 1024;
+
+    private final int inputSampleRate;
+    private final int outputSampleRate;
+    private final int upFactor;
+    private final int downFactor;
+    private final int numTaps;
+    private final float[] coefficients;
+    private final short[] history;
+
+    private int numHistorySamples;
+    private int nextInputIndex;
+    private int phase;
+
+    /**
+     * Constructor.
+     *
+     * @param inputSampleRate Sample rate of the audio passed to `.process()`.
+     * @param outputSampleRate Sample rate of the produced audio, e.g. `Eagle.getSampleRate()`.
+     * @throws EagleException if a sample rate is invalid.
+     */
+    public EagleResampler(int inputSampleRate, int outputSampleRate) throws EagleException {
+        this(inputSampleRate, outputSampleRate, DEFAULT_NUM_ZERO_CROSSINGS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param inputSampleRate Sample rate of the audio passed to `.process()`.
+     * @param outputSampleRate Sample rate of the produced audio, e.g. `Eagle.getSampleRate()`.
+     * @param numZeroCrossings Number of sinc zero crossings on each side of the filter. Higher values give a sharper
+     *                         cutoff at a proportionally higher cost. The default is `16`.
+     * @throws EagleException if a sample rate or the number of zero crossings is invalid.
+     */
+    public EagleResampler(int inputSampleRate, int outputSampleRate, int numZeroCrossings) throws EagleException {
+        if (inputSampleRate < 1 || outputSampleRate < 1) {
+            throw new EagleInvalidArgumentException("Sample rates must be at least 1");
+        }
+
+        if (numZeroCrossings < 1) {
+            throw new EagleInvalidArgumentException("Number of zero crossings must be at least 1");
+        }
+
+        int divisor = gcd(inputSampleRate, outputSampleRate);
+        this.inputSampleRate = inputSampleRate;
+        this.outputSampleRate = outputSampleRate;
+        this.upFactor = outputSampleRate / divisor;
+        this.downFactor = inputSampleRate / divisor;
+
+        int maxFactor = Math.max(upFactor, downFactor);
+        this.numTaps = (int) Math.ceil(2.0 * numZeroCrossings * maxFactor / upFactor);
+        if ((long) upFactor * numTaps > (1 << 22)) {
+            throw new EagleInvalidArgumentException(String.format(
+                    "Conversion from %d Hz to %d Hz needs too large a filter", inputSampleRate, outputSampleRate));
+        }
+
+        this.coefficients = designFilter(upFactor, numTaps, ROLLOFF * 0.5 / maxFactor);
+        this.history = new short[numTaps - 1 + BLOCK_SIZE];
+        reset();
+    }
+
+    /**
+     * Converts a chunk of audio. The filter is linear-phase, so the output is delayed by about `numZeroCrossings`
+     * samples at the lower of the two rates.
+     *
+     * @param pcm Input samples at the input sample rate, 16-bit linearly-encoded.
+     * @param offset Index of the first input sample.
+     * @param length Number of input samples.
+     * @param out Array that receives the output samples. It must have room for `.getMaxOutputLength(length)`
+     *            samples from `outOffset`.
+     * @param outOffset Index in `out` of the first output sample.
+     * @return Number of output samples written.
+     * @throws EagleException if the arguments are invalid.
+     */
+    public int process(short[] pcm, int offset, int length, short[] out, int outOffset) throws EagleException {
+        if (pcm == null || offset < 0 || length < 0 || length > pcm.length - offset) {
+            throw new EagleInvalidArgumentException("Invalid audio range passed to EagleResampler process.");
+        }
+
+        if (out == null || outOffset < 0 || out.length - outOffset < getMaxOutputLength(length)) {
+            throw new EagleInvalidArgumentException(String.format(
+                    "Output array must have room for at least %d samples", getMaxOutputLength(length)));
+        }
+
+        if (upFactor == downFactor) {
+            System.arraycopy(pcm, offset, out, outOffset, length);
+            return length;
+        }
+
+        final int stepIndex = downFactor / upFactor;
+        final int stepPhase = downFactor % upFactor;
+
+        int numWritten = 0;
+        while (length > 0) {
+            int numCopied = Math.min(length, history.length - numHistorySamples);
+            System.arraycopy(pcm, offset, history, numHistorySamples, numCopied);
+            numHistorySamples += numCopied;
+            offset += numCopied;
+            length -= numCopied;
+
+            while (nextInputIndex < numHistorySamples) {
+                int coefficientOffset = phase * numTaps;
+                float sum = 0;
+                for (int k = 0; k < numTaps; k++) {
+                    sum += history[nextInputIndex - k] * coefficients[coefficientOffset + k];
+                }
+                out[outOffset + numWritten++] = clip(sum);
+
+                nextInputIndex += stepIndex;
+                phase += stepPhase;
+                if (phase >= upFactor) {
+                    phase -= upFactor;
+                    nextInputIndex++;
+                }
+            }
+
+            // keep the samples the next output still needs
+            int discard = Math.min(nextInputIndex - (numTaps - 1), numHistorySamples);
+            System.arraycopy(history, discard, history, 0, numHistorySamples - discard);
+            numHistorySamples -= discard;
+            nextInputIndex -= discard;
+        }
+        return numWritten;
+    }
+
+    /**
+     * Getter for an upper bound of the number of output samples `.process()` produces for a chunk.
+     *
+     * @param inputLength Number of input samples.
+     * @return Maximum number of output samples.
+     */
+    public int getMaxOutputLength(int inputLength) {
+        return (int) (((long) inputLength * upFactor + downFactor - 1) / downFactor) + 1;
+    }
+
+    /**
+     * Clears the filter state. It should be called before converting a new stream of audio.
+     */
+    public void reset() {
+        numHistorySamples = numTaps - 1;
+        nextInputIndex = numTaps - 1;
+        phase = 0;
+        for (int i = 0; i < numHistorySamples; i++) {
+            history[i] = 0;
+        }
+    }
+
+    /**
+     * Getter for the input sample rate.
+     *
+     * @return Input sample rate in Hz.
+     */
+    public int getInputSampleRate() {
+        return inputSampleRate;
+    }
+
+    /**
+     * Getter for the output sample rate.
+     *
+     * @return Output sample rate in Hz.
+     */
+    public int getOutputSampleRate() {
+        return outputSampleRate;
+    }
+
+    /**
+     * Designs the low-pass prototype at the upsampled rate and lays it out phase by phase, with the taps of each phase
+     * ordered from the newest input sample to the oldest.
+     */
+    private static float[] designFilter(int numPhases, int numTaps, double cutoff) {
+        int length = numPhases * numTaps;
+        double center = (length - 1) / 2.0;
+        double windowNorm = besselI0(KAISER_BETA);
+
+        float[] table = new float[length];
+        for (int p = 0; p < numPhases; p++) {
+            for (int k = 0; k < numTaps; k++) {
+                int j = p + (k * numPhases);
+                double x = j - center;
+                double sinc = (x == 0) ? 1 : Math.sin(2 * Math.PI * cutoff * x) / (2 * Math.PI * cutoff * x);
+                double r = x / center;
+                double window = (center == 0) ? 1 : besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - r * r)));
+                window /= windowNorm;
+                // the gain of `numPhases` compensates for the zeros inserted by upsampling
+                table[(p * numTaps) + k] = (float) (numPhases * 2 * cutoff * sinc * window);
+            }
+        }
+        return table;
+    }
+
+    private static double besselI0(double x) {
+        double sum = 1;
+        double term = 1;
+        double halfX = x / 2;
+        for (int k = 1; k < 50; k++) {
+            term *= (halfX / k) * (halfX / k);
+            sum += term;
+            if (term < sum * 1e-12) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static short clip(float sample) {
+        int rounded = Math.round(sample);
+        if (rounded > Short.MAX_VALUE) {
+            return Short.MAX_VALUE;
+        }
+        if (rounded < Short.MIN_VALUE) {
+            return Short.MIN_VALUE;
+        }
+        return (short) rounded;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
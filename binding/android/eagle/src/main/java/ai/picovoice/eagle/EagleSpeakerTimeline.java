@@ -0,0 +1,261 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Incrementally turns per-frame similarity scores into "who spoke when" segments. In every frame the speaker with the
+ * highest score is dominant if that score reaches the threshold. Consecutive frames of the same dominant speaker form a
+ * segment. Short pauses of up to a maximum gap are bridged. A segment closes when another speaker becomes dominant,
+ * the pause grows longer than the gap, or `.flush()` is called. Segments shorter than a minimum length are dropped.
+ * Only the open segment is tracked, so memory stays constant however long the stream is. The timeline can be passed
+ * to an `EagleStream` directly. It is not thread-safe.
+ */
+public class EagleSpeakerTimeline implements EagleStreamCallback {
+
+    private static final int NO_SPEAKER = -1;
+
+    private final EagleSpeakerTimelineListener listener;
+    private final int numSpeakers;
+    private final int frameLength;
+    private final float threshold;
+    private final int maxGapFrames;
+    private final int minSegmentFrames;
+
+    private long frameIndex;
+    private int speakerIndex;
+    private long startFrame;
+    private long lastActiveFrame;
+    private double scoreSum;
+    private int numActiveFrames;
+
+    private int closedSpeakerIndex;
+    private long closedStartFrame;
+    private long closedEndFrame;
+    private float closedMeanScore;
+
+    private EagleSpeakerTimeline(
+            EagleSpeakerTimelineListener listener,
+            int numSpeakers,
+            int frameLength,
+            float threshold,
+            int maxGapFrames,
+            int minSegmentFrames) {
+        this.listener = listener;
+        this.numSpeakers = numSpeakers;
+        this.frameLength = frameLength;
+        this.threshold = threshold;
+        this.maxGapFrames = maxGapFrames;
+        this.minSegmentFrames = minSegmentFrames;
+        reset();
+    }
+
+    /**
+     * Adds the scores of the next frame, and notifies the listener if this closes a segment. The listener is called
+     * after the frame has been fully accounted for, so a listener that throws does not disturb the timeline.
+     *
+     * @param scores Similarity scores of the frame, as produced by `Eagle.process()`. Its length must be at least
+     *               the number of speakers.
+     * @throws EagleException if `scores` is too short or the listener throws.
+     */
+    public void update(float[] scores) throws EagleException {
+        if (scores == null || scores.length < numSpeakers) {
+            throw new EagleInvalidArgumentException(
+                    String.format("Scores array must hold at least %d elements", numSpeakers));
+        }
+
+        int dominant = NO_SPEAKER;
+        float dominantScore = threshold;
+        for (int i = 0; i < numSpeakers; i++) {
+            if (scores[i] >= dominantScore) {
+                dominant = i;
+                dominantScore = scores[i];
+            }
+        }
+
+        boolean isReported = false;
+        if (speakerIndex != NO_SPEAKER) {
+            if (dominant == speakerIndex) {
+                lastActiveFrame = frameIndex;
+                scoreSum += dominantScore;
+                numActiveFrames++;
+            } else if (dominant != NO_SPEAKER || frameIndex - lastActiveFrame > maxGapFrames) {
+                isReported = closeSegment();
+            }
+        }
+
+        if (speakerIndex == NO_SPEAKER && dominant != NO_SPEAKER) {
+            speakerIndex = dominant;
+            startFrame = frameIndex;
+            lastActiveFrame = frameIndex;
+            scoreSum = dominantScore;
+            numActiveFrames = 1;
+        }
+        frameIndex++;
+
+        if (isReported) {
+            notifyClosedSegment();
+        }
+    }
+
+    @Override
+    public void onScores(float[] scores) throws EagleException {
+        update(scores);
+    }
+
+    /**
+     * Closes the open segment, if any. It should be called at the end of the stream.
+     *
+     * @throws EagleException if the listener throws.
+     */
+    public void flush() throws EagleException {
+        if (speakerIndex != NO_SPEAKER && closeSegment()) {
+            notifyClosedSegment();
+        }
+    }
+
+    /**
+     * Discards the open segment without notifying the listener and restarts sample positions from zero.
+     */
+    public void reset() {
+        frameIndex = 0;
+        speakerIndex = NO_SPEAKER;
+        startFrame = 0;
+        lastActiveFrame = 0;
+        scoreSum = 0;
+        numActiveFrames = 0;
+    }
+
+    /**
+     * Getter for the number of samples covered by the frames added since the last reset.
+     *
+     * @return Number of samples.
+     */
+    public long getNumSamples() {
+        return frameIndex * frameLength;
+    }
+
+    /**
+     * Closes the open segment and keeps it for `.notifyClosedSegment()`. Returns whether it is long enough to be
+     * reported.
+     */
+    private boolean closeSegment() {
+        closedSpeakerIndex = speakerIndex;
+        closedStartFrame = startFrame;
+        closedEndFrame = lastActiveFrame + 1;
+        closedMeanScore = (float) (scoreSum / numActiveFrames);
+        speakerIndex = NO_SPEAKER;
+        return closedEndFrame - closedStartFrame >= minSegmentFrames;
+    }
+
+    private void notifyClosedSegment() throws EagleException {
+        listener.onSegment(
+                closedSpeakerIndex,
+                closedStartFrame * frameLength,
+                closedEndFrame * frameLength,
+                closedMeanScore);
+    }
+
+    /**
+     * Builder for creating instance of EagleSpeakerTimeline.
+     */
+    public static class Builder {
+
+        private EagleSpeakerTimelineListener listener = null;
+        private int numSpeakers = 0;
+        private int frameLength = 0;
+        private float threshold = 0.5f;
+        private int maxGapFrames = 0;
+        private int minSegmentFrames = 1;
+
+        public Builder setListener(EagleSpeakerTimelineListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public Builder setNumSpeakers(int numSpeakers) {
+            this.numSpeakers = numSpeakers;
+            return this;
+        }
+
+        /**
+         * Sets the number of samples per frame, used to convert frame positions into sample positions. It should be
+         * `Eagle.getFrameLength()`.
+         *
+         * @param frameLength Number of samples per frame.
+         * @return This builder.
+         */
+        public Builder setFrameLength(int frameLength) {
+            this.frameLength = frameLength;
+            return this;
+        }
+
+        public Builder setThreshold(float threshold) {
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * Sets the longest pause, in frames without a dominant speaker, that does not close a segment. The default is
+         * `0`.
+         *
+         * @param maxGapFrames Maximum number of frames.
+         * @return This builder.
+         */
+        public Builder setMaxGapFrames(int maxGapFrames) {
+            this.maxGapFrames = maxGapFrames;
+            return this;
+        }
+
+        public Builder setMinSegmentFrames(int minSegmentFrames) {
+            this.minSegmentFrames = minSegmentFrames;
+            return this;
+        }
+
+        /**
+         * Validates properties and creates an instance of EagleSpeakerTimeline.
+         *
+         * @return An instance of EagleSpeakerTimeline
+         * @throws EagleException if any of the properties is invalid.
+         */
+        public EagleSpeakerTimeline build() throws EagleException {
+            if (listener == null) {
+                throw new EagleInvalidArgumentException("No listener was provided to EagleSpeakerTimeline");
+            }
+
+            if (numSpeakers < 1) {
+                throw new EagleInvalidArgumentException("Number of speakers must be at least 1");
+            }
+
+            if (frameLength < 1) {
+                throw new EagleInvalidArgumentException("Frame length must be at least 1");
+            }
+
+            if (maxGapFrames < 0) {
+                throw new EagleInvalidArgumentException("Maximum gap cannot be negative");
+            }
+
+            if (minSegmentFrames < 1) {
+                throw new EagleInvalidArgumentException("Minimum segment length must be at least 1 frame");
+            }
+
+            return new EagleSpeakerTimeline(
+                    listener,
+                    numSpeakers,
+                    frameLength,
+                    threshold,
+                    maxGapFrames,
+                    minSegmentFrames);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Listener that receives the speaker segments produced by an `EagleSpeakerTimeline`.
+ */
+public interface EagleSpeakerTimelineListener {
+
+    /**
+     * Called once for every segment, as soon as it is closed.
+     *
+     * @param speakerIndex Index of the speaker profile.
+     * @param startSample Index of the first sample of the segment, counted from the last reset.
+     * @param endSample Index one past the last sample of the segment.
+     * @param meanScore Mean score of the speaker over the frames in which it was the dominant speaker.
+     * @throws EagleException to abort the current `EagleSpeakerTimeline.update()` call.
+     */
+    void onSegment(int speakerIndex, long startSample, long endSample, float meanScore) throws EagleException;
+}
@@ -0,0 +1,220 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import java.util.Arrays;
+
+/**
+ * Re-frames audio chunks of arbitrary length for an `Eagle` instance. Samples passed to `.feed()` are accumulated
+ * into an internal frame buffer, and `Eagle.process()` runs once per complete frame, with the scores delivered to an
+ * `EagleStreamCallback`. Capture buffers therefore do not need to match `Eagle.getFrameLength()`.
+ * Optionally, an `EagleFrameGate` skips inference on frames without speech, and an `EagleDutyCycle` lowers the
+ * processing rate while the scores are stable.
+ * Apart from the scores array that the native layer returns for every processed frame, the stream allocates nothing
+ * after construction, except for a new scores array when speaker profiles are added to or removed from the `Eagle`
+ * instance. It is not thread-safe and does not take ownership of the `Eagle` instance.
+ */
+public class EagleStream {
+
+    private final Eagle eagle;
+    private final EagleStreamCallback callback;
+    private final EagleFrameGate gate;
+    private final EagleDutyCycle dutyCycle;
+    private final short[] frame;
+    private float[] scores;
+    private float[] warmUpScores;
+
+    private int numBufferedSamples;
+    private long numProcessedFrames;
+    private long numSkippedFrames;
+
+    /**
+     * Constructor.
+     *
+     * @param eagle An instance of Eagle that processes the complete frames.
+     * @param callback Callback invoked with the scores of every processed frame.
+     * @throws EagleException if the arguments are invalid.
+     */
+    public EagleStream(Eagle eagle, EagleStreamCallback callback) throws EagleException {
+        this(eagle, callback, null);
+    }
+
+    /**
+     * Constructor for a gated stream. Frames that `gate` judges to be non-speech skip Eagle inference, and the
+     * callback receives scores according to the mode of the gate instead.
+     *
+     * @param eagle An instance of Eagle that processes the complete frames.
+     * @param callback Callback invoked with the scores of every frame.
+     * @param gate Speech detector deciding which frames are processed, or `null` to process every frame.
+     * @throws EagleException if the arguments are invalid.
+     */
+    public EagleStream(Eagle eagle, EagleStreamCallback callback, EagleFrameGate gate) throws EagleException {
+        this(eagle, callback, gate, null);
+    }
+
+    /**
+     * Constructor for a gated and duty-cycled stream. Frames that pass `gate` are further thinned out by `dutyCycle`
+     * while the scores are stable, and the callback receives the last reported scores for the frames it skips or only
+     * uses to warm up the engine.
+     *
+     * @param eagle An instance of Eagle that processes the complete frames.
+     * @param callback Callback invoked with the scores of every frame.
+     * @param gate Speech detector deciding which frames are processed, or `null` to treat every frame as speech.
+     * @param dutyCycle Adaptive duty cycle, or `null` to process every speech frame.
+     * @throws EagleException if the arguments are invalid.
+     */
+    public EagleStream(
+            Eagle eagle,
+            EagleStreamCallback callback,
+            EagleFrameGate gate,
+            EagleDutyCycle dutyCycle) throws EagleException {
+        if (eagle == null) {
+            throw new EagleInvalidArgumentException("No Eagle instance was provided to EagleStream");
+        }
+
+        if (callback == null) {
+            throw new EagleInvalidArgumentException("No callback was provided to EagleStream");
+        }
+
+        this.eagle = eagle;
+        this.callback = callback;
+        this.gate = gate;
+        this.dutyCycle = dutyCycle;
+        this.frame = new short[eagle.getFrameLength()];
+        this.scores = new float[eagle.getNumSpeakers()];
+        this.warmUpScores = new float[eagle.getNumSpeakers()];
+        this.numBufferedSamples = 0;
+    }
+
+    /**
+     * Feeds a chunk of audio to the stream. Every time a frame is complete it is processed and the callback is
+     * invoked before this call returns. Leftover samples are kept until the next call.
+     *
+     * @param pcm Audio samples. The audio needs to have a sample rate equal to `Eagle.getSampleRate()` and be
+     *            16-bit linearly-encoded.
+     * @param offset Index of the first sample to consume.
+     * @param length Number of samples to consume.
+     * @throws EagleException if there is an error while processing audio frames.
+     */
+    public void feed(short[] pcm, int offset, int length) throws EagleException {
+        if (pcm == null || offset < 0 || length < 0 || length > pcm.length - offset) {
+            throw new EagleInvalidArgumentException("Invalid audio range passed to EagleStream feed.");
+        }
+
+        while (length > 0) {
+            int numCopied = Math.min(length, frame.length - numBufferedSamples);
+            System.arraycopy(pcm, offset, frame, numBufferedSamples, numCopied);
+            numBufferedSamples += numCopied;
+            offset += numCopied;
+            length -= numCopied;
+
+            if (numBufferedSamples == frame.length) {
+                numBufferedSamples = 0;
+                processFrame();
+            }
+        }
+    }
+
+    private void processFrame() throws EagleException {
+        boolean isSpeech = gate == null || gate.shouldProcess(frame);
+
+        int action = EagleDutyCycle.PROCESS;
+        float level = 0;
+        if (isSpeech && dutyCycle != null) {
+            level = (gate != null) ? gate.getLastLevel() : EagleFrameGate.computeLevel(frame);
+            action = dutyCycle.nextFrame(level);
+            if (action == EagleDutyCycle.RESET_AND_PROCESS || action == EagleDutyCycle.RESET_AND_WARM_UP) {
+                eagle.reset();
+            }
+        }
+
+        boolean isWarmUp = action == EagleDutyCycle.WARM_UP || action == EagleDutyCycle.RESET_AND_WARM_UP;
+        if (isSpeech && action != EagleDutyCycle.SKIP && !isWarmUp) {
+            scores = eagle.processReusing(frame, scores);
+            numProcessedFrames++;
+            if (dutyCycle != null && dutyCycle.onProcessed(scores, level)) {
+                // the engine has only seen bursts of frames, so start over for full rate
+                eagle.reset();
+            }
+        } else {
+            if (isSpeech && isWarmUp) {
+                // primes the engine for the last frame of the burst, the callback gets the last reported scores
+                warmUpScores = eagle.processReusing(frame, warmUpScores);
+                numProcessedFrames++;
+            } else {
+                numSkippedFrames++;
+            }
+
+            if (scores.length != eagle.getNumSpeakers()) {
+                scores = new float[eagle.getNumSpeakers()];
+            } else if (!isSpeech && gate.getMode() == EagleFrameGateMode.ZEROS) {
+                Arrays.fill(scores, 0);
+            }
+        }
+        callback.onScores(scores);
+    }
+
+    /**
+     * Discards any partially buffered frame and resets the internal state of the underlying Eagle instance, the gate
+     * and the duty cycle. The frame counters are kept.
+     *
+     * @throws EagleException if there is an error while resetting Eagle.
+     */
+    public void reset() throws EagleException {
+        numBufferedSamples = 0;
+        if (gate != null) {
+            gate.reset();
+        }
+        if (dutyCycle != null) {
+            dutyCycle.reset();
+        }
+        eagle.reset();
+    }
+
+    /**
+     * Getter for the number of frames that went through Eagle inference.
+     *
+     * @return Number of processed frames.
+     */
+    public long getNumProcessedFrames() {
+        return numProcessedFrames;
+    }
+
+    /**
+     * Getter for the number of frames skipped by the gate or the duty cycle.
+     *
+     * @return Number of skipped frames.
+     */
+    public long getNumSkippedFrames() {
+        return numSkippedFrames;
+    }
+
+    /**
+     * Getter for the number of samples waiting for a frame to complete.
+     *
+     * @return Number of buffered samples, always less than `Eagle.getFrameLength()`.
+     */
+    public int getNumBufferedSamples() {
+        return numBufferedSamples;
+    }
+
+    /**
+     * Getter for the Eagle instance this stream feeds.
+     *
+     * @return The Eagle instance.
+     */
+    public Eagle getEagle() {
+        return eagle;
+    }
+}
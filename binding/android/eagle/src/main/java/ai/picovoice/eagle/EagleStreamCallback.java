@@ -0,0 +1,29 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * Callback that receives the similarity scores produced for each frame by an `EagleStream`.
+ */
+public interface EagleStreamCallback {
+
+    /**
+     * Called once for every complete frame processed by the stream.
+     *
+     * @param scores Similarity scores for each speaker profile. The array is owned by the stream and reused for the
+     *               next frame, so copy it if the values are needed after this call returns.
+     * @throws EagleException to abort the current `EagleStream.feed()` call.
+     */
+    void onScores(float[] scores) throws EagleException;
+}
@@ -0,0 +1,150 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+/**
+ * The best-scoring speakers of a frame, as returned by `Eagle.processTopK()`. Entries are ordered by descending score.
+ * The indices refer to the speaker profiles Eagle was initialized with. Instances can be passed back to
+ * `Eagle.processTopK()` so that they are reused for the next frame.
+ */
+public final class EagleTopKResult {
+
+    private final int[] speakerIndices;
+    private final float[] scores;
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity Maximum number of entries the result can hold.
+     */
+    public EagleTopKResult(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("EagleTopKResult capacity must be at least 1");
+        }
+
+        this.speakerIndices = new int[capacity];
+        this.scores = new float[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Getter for the number of entries, which is at most `k` and can be zero when no speaker reaches the minimum
+     * score.
+     *
+     * @return Number of entries.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Getter for the maximum number of entries.
+     *
+     * @return Capacity of the result.
+     */
+    public int getCapacity() {
+        return speakerIndices.length;
+    }
+
+    /**
+     * Getter for the speaker index of an entry.
+     *
+     * @param rank Position of the entry, `0` being the best-scoring speaker.
+     * @return Index of the speaker profile.
+     */
+    public int getSpeakerIndex(int rank) {
+        checkRank(rank);
+        return speakerIndices[rank];
+    }
+
+    /**
+     * Getter for the score of an entry.
+     *
+     * @param rank Position of the entry, `0` being the best-scoring speaker.
+     * @return Similarity score of the speaker.
+     */
+    public float getScore(int rank) {
+        checkRank(rank);
+        return scores[rank];
+    }
+
+    /**
+     * Keeps the `k` highest of the first `numScores` scores that are at least `minScore`, using a bounded min-heap
+     * whose root is the weakest entry kept so far, then sorts the entries by descending score.
+     */
+    void select(float[] allScores, int numScores, int k, float minScore) {
+        size = 0;
+        for (int i = 0; i < numScores; i++) {
+            float score = allScores[i];
+            if (!(score >= minScore)) {
+                continue;
+            }
+
+            if (size < k) {
+                siftUp(size++, i, score);
+            } else if (score > scores[0]) {
+                siftDown(0, size, i, score);
+            }
+        }
+
+        // heap sort: moving the minimum to the end of the heap leaves the entries in descending order
+        for (int end = size - 1; end > 0; end--) {
+            int index = speakerIndices[end];
+            float score = scores[end];
+            speakerIndices[end] = speakerIndices[0];
+            scores[end] = scores[0];
+            siftDown(0, end, index, score);
+        }
+    }
+
+    private void siftUp(int position, int index, float score) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (scores[parent] <= score) {
+                break;
+            }
+            speakerIndices[position] = speakerIndices[parent];
+            scores[position] = scores[parent];
+            position = parent;
+        }
+        speakerIndices[position] = index;
+        scores[position] = score;
+    }
+
+    private void siftDown(int position, int heapSize, int index, float score) {
+        int half = heapSize >>> 1;
+        while (position < half) {
+            int child = (position << 1) + 1;
+            int right = child + 1;
+            if (right < heapSize && scores[right] < scores[child]) {
+                child = right;
+            }
+            if (score <= scores[child]) {
+                break;
+            }
+            speakerIndices[position] = speakerIndices[child];
+            scores[position] = scores[child];
+            position = child;
+        }
+        speakerIndices[position] = index;
+        scores[position] = score;
+    }
+
+    private void checkRank(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException(String.format("Rank %d is out of range [0, %d)", rank, size));
+        }
+    }
+}
@@ -0,0 +1,337 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagle;
+
+import android.content.Context;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Speaker recognition over a large set of speaker profiles, split across several Eagle instances ("shards") that
+ * score each frame in parallel. Every shard holds a contiguous slice of the profiles, and the scores are merged in
+ * the original profile order, so the output matches that of a single `Eagle` with the same profiles. Per-frame
+ * latency stays roughly flat as the number of profiles grows, as long as there are enough idle cores.
+ * Calls to `.process()` are serialized.
+ */
+public class ShardedEagle implements AutoCloseable {
+
+    private final Eagle[] shards;
+    private final int[] shardOffsets;
+    private final float[][] shardScores;
+    private final int numSpeakers;
+    private final int frameLength;
+    private final EagleParallelInvoker invoker;
+    private final EagleCleaner.Cleanable cleanable;
+
+    private short[] pcm;
+    private float[] scoresOut;
+    private boolean isDeleted = false;
+
+    private ShardedEagle(Eagle[] shards, int[] shardOffsets, Executor executor) {
+        this.shards = shards;
+        this.shardOffsets = shardOffsets;
+        this.numSpeakers = shardOffsets[shards.length];
+        this.frameLength = shards[0].getFrameLength();
+
+        this.shardScores = new float[shards.length][];
+        for (int i = 0; i < shards.length; i++) {
+            shardScores[i] = new float[shardOffsets[i + 1] - shardOffsets[i]];
+        }
+
+        EagleParallelInvoker.Task task = new EagleParallelInvoker.Task() {
+            @Override
+            public void run(int index) throws EagleException {
+                float[] scores = shardScores[index];
+                ShardedEagle.this.shards[index].process(pcm, scores);
+                System.arraycopy(scores, 0, scoresOut, ShardedEagle.this.shardOffsets[index], scores.length);
+            }
+        };
+        if (executor != null) {
+            this.invoker = new EagleParallelInvoker(executor, shards.length, task);
+        } else {
+            this.invoker = new EagleParallelInvoker("ShardedEagle", shards.length, task);
+        }
+        this.cleanable = EagleCleaner.register(this, invoker.getShutdownAction());
+    }
+
+    /**
+     * Releases resources acquired by all shards, and stops the worker threads if they are owned by this instance.
+     * Instances that are never deleted stop their worker threads after they are garbage collected, and the shards
+     * are released like any other unreferenced `Eagle`.
+     */
+    public synchronized void delete() {
+        if (isDeleted) {
+            return;
+        }
+        isDeleted = true;
+
+        for (Eagle shard : shards) {
+            shard.delete();
+        }
+        cleanable.clean();
+    }
+
+    @Override
+    public void close() {
+        delete();
+    }
+
+    /**
+     * Processes given audio data and returns speaker likelihood scores.
+     *
+     * @param pcm A frame of audio samples. The number of samples per frame can be attained by calling
+     *            `.getFrameLength()`. The incoming audio needs to have a sample rate equal to `.getSampleRate()` and
+     *            be 16-bit linearly-encoded.
+     * @return The similarity scores for each enrolled speaker, in the order of the speaker profiles.
+     * @throws EagleException if there is an error while processing audio frames.
+     */
+    public float[] process(short[] pcm) throws EagleException {
+        float[] scores = new float[numSpeakers];
+        process(pcm, scores);
+        return scores;
+    }
+
+    /**
+     * Processes given audio data and writes the similarity scores for each enrolled speaker into `scoresOut`.
+     * Unless an executor was set, nothing is allocated per call apart from the scores array that the native layer
+     * returns for every shard.
+     *
+     * @param pcm A frame of audio samples. The number of samples per frame can be attained by calling
+     *            `.getFrameLength()`. The incoming audio needs to have a sample rate equal to `.getSampleRate()` and
+     *            be 16-bit linearly-encoded.
+     * @param scoresOut Array that receives the similarity scores. Its length must be at least `.getNumSpeakers()`.
+     * @throws EagleException if there is an error while processing audio frames.
+     */
+    public synchronized void process(short[] pcm, float[] scoresOut) throws EagleException {
+        checkNotDeleted("process");
+
+        if (pcm == null) {
+            throw new EagleInvalidArgumentException("Passed null frame to Eagle process.");
+        }
+
+        if (pcm.length != frameLength) {
+            throw new EagleInvalidArgumentException(
+                    String.format("Length of input frame %d does not match required frame length %d",
+                            pcm.length, frameLength));
+        }
+
+        if (scoresOut == null || scoresOut.length < numSpeakers) {
+            throw new EagleInvalidArgumentException(
+                    String.format("Scores array must hold at least %d elements", numSpeakers));
+        }
+
+        this.pcm = pcm;
+        this.scoresOut = scoresOut;
+        try {
+            invoker.invokeAll();
+        } finally {
+            this.pcm = null;
+            this.scoresOut = null;
+        }
+    }
+
+    /**
+     * Resets the internal state of every shard. It should be called before processing a new stream of audio.
+     *
+     * @throws EagleException if there is an error while resetting Eagle.
+     */
+    public synchronized void reset() throws EagleException {
+        checkNotDeleted("reset");
+
+        for (Eagle shard : shards) {
+            shard.reset();
+        }
+    }
+
+    /**
+     * Getter for the total number of speaker profiles.
+     *
+     * @return Number of speaker profiles, which is also the number of scores produced per frame.
+     */
+    public int getNumSpeakers() {
+        return numSpeakers;
+    }
+
+    /**
+     * Getter for the number of shards.
+     *
+     * @return Number of Eagle instances the speaker profiles are split across.
+     */
+    public int getNumShards() {
+        return shards.length;
+    }
+
+    /**
+     * Getter for number of audio samples per frame.
+     *
+     * @return Number of audio samples per frame.
+     */
+    public int getFrameLength() {
+        return frameLength;
+    }
+
+    /**
+     * Getter for audio sample rate accepted by Picovoice.
+     *
+     * @return Audio sample rate accepted by Picovoice.
+     */
+    public int getSampleRate() {
+        return shards[0].getSampleRate();
+    }
+
+    private void checkNotDeleted(String method) throws EagleException {
+        if (isDeleted) {
+            throw new EagleInvalidStateException(
+                    String.format("Attempted to call sharded eagle %s after delete.", method));
+        }
+    }
+
+    /**
+     * Builder for creating instance of ShardedEagle.
+     */
+    public static class Builder {
+
+        private String accessKey = null;
+        private String modelPath = null;
+        private EagleProfile[] speakerProfiles = null;
+        private int numShards = 0;
+        private Executor executor = null;
+
+        public Builder setAccessKey(String accessKey) {
+            this.accessKey = accessKey;
+            return this;
+        }
+
+        public Builder setModelPath(String modelPath) {
+            this.modelPath = modelPath;
+            return this;
+        }
+
+        public Builder setSpeakerProfiles(EagleProfile[] speakerProfiles) {
+            this.speakerProfiles = speakerProfiles;
+            return this;
+        }
+
+        /**
+         * Sets the number of shards. Defaults to the number of available processors. It is capped at the number of
+         * speaker profiles.
+         *
+         * @param numShards Number of Eagle instances to split the speaker profiles across.
+         * @return This builder.
+         */
+        public Builder setNumShards(int numShards) {
+            this.numShards = numShards;
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs all shards but the first one, which always runs on the thread calling
+         * `.process()`. If not set, every other shard gets a dedicated daemon thread that parks between frames and is
+         * stopped on `.delete()`. A shared executor should have enough threads to run all shards at once, or frames
+         * wait for each other, and it may allocate for every task it runs.
+         *
+         * @param executor Executor for the shards.
+         * @return This builder.
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Validates properties and creates an instance of ShardedEagle. The first shard is created on the calling
+         * thread so that model extraction happens once; the remaining shards are initialized in parallel.
+         *
+         * @param context Android app context (for extracting Eagle resources)
+         * @return An instance of ShardedEagle
+         * @throws EagleException if there is an error while initializing any of the shards.
+         */
+        public ShardedEagle build(final Context context) throws EagleException {
+            if (speakerProfiles == null || speakerProfiles.length == 0) {
+                throw new EagleInvalidArgumentException("No speaker profiles provided to ShardedEagle");
+            }
+
+            if (numShards < 0) {
+                throw new EagleInvalidArgumentException("Number of shards cannot be negative");
+            }
+
+            int shardCount = (numShards > 0) ? numShards : Runtime.getRuntime().availableProcessors();
+            shardCount = Math.min(shardCount, speakerProfiles.length);
+
+            // contiguous slices whose sizes differ by at most one
+            final EagleProfile[] profiles = speakerProfiles.clone();
+            final int[] shardOffsets = new int[shardCount + 1];
+            for (int i = 0; i <= shardCount; i++) {
+                shardOffsets[i] = (int) ((long) profiles.length * i / shardCount);
+            }
+
+            final Eagle[] shards = new Eagle[shardCount];
+            try {
+                shards[0] = buildShard(context, profiles, shardOffsets, 0);
+                if (shardCount > 1) {
+                    buildRemainingShards(context, profiles, shardOffsets, shards);
+                }
+            } catch (EagleException | RuntimeException e) {
+                for (Eagle shard : shards) {
+                    if (shard != null) {
+                        shard.delete();
+                    }
+                }
+                throw e;
+            }
+
+            return new ShardedEagle(shards, shardOffsets, executor);
+        }
+
+        private void buildRemainingShards(
+                final Context context,
+                final EagleProfile[] profiles,
+                final int[] shardOffsets,
+                final Eagle[] shards) throws EagleException {
+            EagleParallelInvoker.Task task = new EagleParallelInvoker.Task() {
+                @Override
+                public void run(int index) throws EagleException {
+                    if (index > 0) {
+                        shards[index] = buildShard(context, profiles, shardOffsets, index);
+                    }
+                }
+            };
+
+            if (executor != null) {
+                new EagleParallelInvoker(executor, shards.length, task).invokeAll();
+                return;
+            }
+
+            EagleParallelInvoker invoker = new EagleParallelInvoker("ShardedEagle-build", shards.length, task);
+            try {
+                invoker.invokeAll();
+            } finally {
+                invoker.shutdown();
+            }
+        }
+
+        private Eagle buildShard(
+                Context context,
+                EagleProfile[] profiles,
+                int[] shardOffsets,
+                int index) throws EagleException {
+            return new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(modelPath)
+                    .setSpeakerProfiles(Arrays.copyOfRange(profiles, shardOffsets[index], shardOffsets[index + 1]))
+                    .build(context);
+        }
+    }
+}
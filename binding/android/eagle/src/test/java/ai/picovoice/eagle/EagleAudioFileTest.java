@@ -0,0 +1,68 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class EagleAudioFileTest {
+
+    private static File writeRawFile(int numSamples) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(numSamples * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < numSamples; i++) {
+            bytes.putShort((short) i);
+        }
+
+        File file = File.createTempFile("eagle", ".pcm");
+        file.deleteOnExit();
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(bytes.array());
+        }
+        return file;
+    }
+
+    @Test
+    public void testReadAtEndOfFile() throws Exception {
+        try (EagleAudioFile file = EagleAudioFile.openRaw(writeRawFile(10), 16000, 1)) {
+            short[] dst = new short[5];
+            assertEquals(2, file.read(8, dst, 0, 5));
+            assertArrayEquals(new short[]{8, 9, 0, 0, 0}, dst);
+
+            assertEquals(0, file.read(10, dst, 0, 5));
+            assertEquals(0, file.read(11, dst, 0, 5));
+            assertEquals(0, file.read(Long.MAX_VALUE, dst, 0, 5));
+        }
+    }
+
+    @Test
+    public void testReadNegativeIndex() throws Exception {
+        try (EagleAudioFile file = EagleAudioFile.openRaw(writeRawFile(10), 16000, 1)) {
+            boolean didFail = false;
+            try {
+                file.read(-1, new short[5], 0, 5);
+            } catch (IndexOutOfBoundsException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EagleAudioPipelineTest {
+
+    private static final int FRAME_LENGTH = 8;
+    private static final int NUM_FRAMES = 20;
+    private static final int QUEUE_CAPACITY = 4;
+
+    private static void await(CountDownLatch latch) throws EagleException {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new EagleException(e);
+        }
+    }
+
+    /**
+     * Produces `NUM_FRAMES` frames whose samples all hold the frame index, in reads of at most half a frame. The
+     * second frame is only produced once the engine holds the first one, so the queue fills up deterministically.
+     */
+    private static class GeneratorSource implements EagleAudioSource {
+
+        final CountDownLatch isExhausted = new CountDownLatch(1);
+        private final CountDownLatch isFirstFrameTaken;
+        private int numSamplesRead = 0;
+
+        GeneratorSource(CountDownLatch isFirstFrameTaken) {
+            this.isFirstFrameTaken = isFirstFrameTaken;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public int read(short[] pcm, int offset, int length) throws EagleException {
+            int frameIndex = numSamplesRead / FRAME_LENGTH;
+            if (frameIndex >= NUM_FRAMES) {
+                isExhausted.countDown();
+                return -1;
+            }
+
+            if (numSamplesRead == FRAME_LENGTH) {
+                await(isFirstFrameTaken);
+            }
+
+            int numRead = Math.min(length, Math.min(FRAME_LENGTH / 2, FRAME_LENGTH - (numSamplesRead % FRAME_LENGTH)));
+            for (int i = 0; i < numRead; i++) {
+                pcm[offset + i] = (short) frameIndex;
+            }
+            numSamplesRead += numRead;
+            return numRead;
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
+    /**
+     * Records the index of every processed frame, and holds the first frame until it is released.
+     */
+    private static class GatedEngine implements EagleAudioPipeline.Engine {
+
+        final CountDownLatch isFirstFrameTaken = new CountDownLatch(1);
+        final CountDownLatch isReleased = new CountDownLatch(1);
+        final List<Integer> processedFrames = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @Override
+        public int getFrameLength() {
+            return FRAME_LENGTH;
+        }
+
+        @Override
+        public float[] process(short[] pcm, float[] scores) throws EagleException {
+            processedFrames.add((int) pcm[0]);
+            if (isFirstFrameTaken.getCount() > 0) {
+                isFirstFrameTaken.countDown();
+                await(isReleased);
+            }
+            return (scores != null) ? scores : new float[1];
+        }
+    }
+
+    private static class CountingCallback implements EagleStreamCallback {
+
+        final AtomicInteger numScores = new AtomicInteger();
+
+        @Override
+        public void onScores(float[] scores) {
+            numScores.incrementAndGet();
+        }
+    }
+
+    private static EagleAudioPipeline newPipeline(
+            GatedEngine engine,
+            GeneratorSource source,
+            CountingCallback callback,
+            EagleBackpressure backpressure) throws EagleException {
+        return new EagleAudioPipeline.Builder()
+                .setEngine(engine)
+                .setSource(source)
+                .setCallback(callback)
+                .setBackpressure(backpressure)
+                .setQueueCapacity(QUEUE_CAPACITY)
+                .build();
+    }
+
+    private static void assertCounters(
+            EagleAudioPipeline pipeline,
+            CountingCallback callback,
+            long numProcessed,
+            long numDropped) {
+        assertEquals(NUM_FRAMES, pipeline.getNumCapturedFrames());
+        assertEquals(numProcessed, pipeline.getNumProcessedFrames());
+        assertEquals(numDropped, pipeline.getNumDroppedFrames());
+        assertEquals(numProcessed, callback.numScores.get());
+        assertEquals(
+                pipeline.getNumCapturedFrames(),
+                pipeline.getNumProcessedFrames() + pipeline.getNumDroppedFrames());
+    }
+
+    @Test(timeout = 10000)
+    public void testBlockProcessesEveryFrame() throws Exception {
+        GatedEngine engine = new GatedEngine();
+        GeneratorSource source = new GeneratorSource(engine.isFirstFrameTaken);
+        CountingCallback callback = new CountingCallback();
+        EagleAudioPipeline pipeline = newPipeline(engine, source, callback, EagleBackpressure.BLOCK);
+
+        pipeline.start();
+        while (pipeline.getNumOverruns() == 0) {
+            Thread.sleep(1);
+        }
+        engine.isReleased.countDown();
+        pipeline.awaitCompletion();
+
+        assertCounters(pipeline, callback, NUM_FRAMES, 0);
+        assertTrue(pipeline.getNumOverruns() >= 1);
+        for (int i = 0; i < NUM_FRAMES; i++) {
+            assertEquals(i, (int) engine.processedFrames.get(i));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testDropNewestKeepsQueuedFrames() throws Exception {
+        GatedEngine engine = new GatedEngine();
+        GeneratorSource source = new GeneratorSource(engine.isFirstFrameTaken);
+        CountingCallback callback = new CountingCallback();
+        EagleAudioPipeline pipeline = newPipeline(engine, source, callback, EagleBackpressure.DROP_NEWEST);
+
+        pipeline.start();
+        await(source.isExhausted);
+        engine.isReleased.countDown();
+        pipeline.awaitCompletion();
+
+        // the frame in flight plus a full queue are processed, every later frame is dropped
+        int numDropped = NUM_FRAMES - QUEUE_CAPACITY - 1;
+        assertCounters(pipeline, callback, QUEUE_CAPACITY + 1, numDropped);
+        assertEquals(numDropped, pipeline.getNumOverruns());
+        for (int i = 0; i <= QUEUE_CAPACITY; i++) {
+            assertEquals(i, (int) engine.processedFrames.get(i));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testDropOldestKeepsLatestFrames() throws Exception {
+        GatedEngine engine = new GatedEngine();
+        GeneratorSource source = new GeneratorSource(engine.isFirstFrameTaken);
+        CountingCallback callback = new CountingCallback();
+        EagleAudioPipeline pipeline = newPipeline(engine, source, callback, EagleBackpressure.DROP_OLDEST);
+
+        pipeline.start();
+        await(source.isExhausted);
+        engine.isReleased.countDown();
+        pipeline.awaitCompletion();
+
+        // the frame in flight was copied out of the queue, so the queue ends up holding the latest frames
+        int numDropped = NUM_FRAMES - QUEUE_CAPACITY - 1;
+        assertCounters(pipeline, callback, QUEUE_CAPACITY + 1, numDropped);
+        assertEquals(numDropped, pipeline.getNumOverruns());
+        assertEquals(0, (int) engine.processedFrames.get(0));
+        for (int i = 1; i <= QUEUE_CAPACITY; i++) {
+            assertEquals(NUM_FRAMES - QUEUE_CAPACITY - 1 + i, (int) engine.processedFrames.get(i));
+        }
+    }
+}
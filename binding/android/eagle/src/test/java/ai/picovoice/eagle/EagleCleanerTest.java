@@ -0,0 +1,93 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EagleCleanerTest {
+
+    private Object reachableOwner;
+
+    private static final class CountingHandle extends EagleHandle {
+
+        final AtomicInteger numFreed = new AtomicInteger();
+
+        CountingHandle() {
+            super(1);
+        }
+
+        @Override
+        void free(long handle) {
+            numFreed.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testCleanClosesOnce() {
+        int numLive = EagleHandle.getNumLive();
+        Object owner = new Object();
+        CountingHandle handle = new CountingHandle();
+        EagleCleaner.Cleanable cleanable = EagleCleaner.register(owner, handle);
+
+        cleanable.clean();
+        cleanable.clean();
+
+        assertTrue(handle.isClosed());
+        assertEquals(1, handle.numFreed.get());
+        assertEquals(numLive, EagleHandle.getNumLive());
+    }
+
+    @Test
+    public void testUnreachableOwnerIsCleaned() throws Exception {
+        int numLive = EagleHandle.getNumLive();
+        CountingHandle handle = new CountingHandle();
+        registerUnreachableOwner(handle);
+        assertEquals(numLive + 1, EagleHandle.getNumLive());
+
+        for (int i = 0; i < 100 && !handle.isClosed(); i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        assertTrue(handle.isClosed());
+        assertEquals(1, handle.numFreed.get());
+        assertEquals(numLive, EagleHandle.getNumLive());
+    }
+
+    @Test
+    public void testReachableOwnerIsNotCleaned() throws Exception {
+        // a field keeps the owner strongly reachable for the whole test
+        reachableOwner = new Object();
+        CountingHandle handle = new CountingHandle();
+        EagleCleaner.Cleanable cleanable = EagleCleaner.register(reachableOwner, handle);
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertFalse(handle.isClosed());
+
+        cleanable.clean();
+        assertTrue(handle.isClosed());
+    }
+
+    private static void registerUnreachableOwner(EagleHandle handle) {
+        EagleCleaner.register(new Object(), handle);
+    }
+}
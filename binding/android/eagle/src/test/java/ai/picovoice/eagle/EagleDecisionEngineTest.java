@@ -0,0 +1,159 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class EagleDecisionEngineTest {
+
+    private static class RecordingListener implements EagleDecisionListener {
+
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onSpeakerEnter(int speakerIndex, long frameIndex, float score) throws EagleException {
+            events.add(String.format("enter %d@%d", speakerIndex, frameIndex));
+        }
+
+        @Override
+        public void onSpeakerLeave(int speakerIndex, long frameIndex, float score) throws EagleException {
+            events.add(String.format("leave %d@%d", speakerIndex, frameIndex));
+        }
+    }
+
+    @Test
+    public void testExponentialMovingAverage() throws Exception {
+        EagleDecisionEngine engine = new EagleDecisionEngine.Builder()
+                .setNumSpeakers(1)
+                .setSmoothingFactor(0.5f)
+                .setListener(new RecordingListener())
+                .build();
+
+        engine.update(new float[]{1.0f});
+        assertEquals(0.5f, engine.getSmoothedScore(0), 1e-6f);
+        engine.update(new float[]{1.0f});
+        assertEquals(0.75f, engine.getSmoothedScore(0), 1e-6f);
+        engine.update(new float[]{0.0f});
+        assertEquals(0.375f, engine.getSmoothedScore(0), 1e-6f);
+
+        engine.reset();
+        assertEquals(0.0f, engine.getSmoothedScore(0), 0);
+    }
+
+    @Test
+    public void testHysteresis() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        EagleDecisionEngine engine = new EagleDecisionEngine.Builder()
+                .setNumSpeakers(1)
+                .setSmoothingFactor(0)
+                .setThresholds(0.6f, 0.4f)
+                .setListener(listener)
+                .build();
+
+        for (float score : new float[]{0.5f, 0.7f, 0.5f, 0.45f, 0.3f, 0.5f, 0.6f}) {
+            engine.update(new float[]{score});
+        }
+
+        // scores between the thresholds keep the current state
+        assertEquals(Arrays.asList("enter 0@1", "leave 0@4", "enter 0@6"), listener.events);
+        assertTrue(engine.isSpeakerActive(0));
+    }
+
+    @Test
+    public void testMinDwellFrames() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        EagleDecisionEngine engine = new EagleDecisionEngine.Builder()
+                .setNumSpeakers(1)
+                .setSmoothingFactor(0)
+                .setThresholds(0.6f, 0.4f)
+                .setMinDwellFrames(3)
+                .setListener(listener)
+                .build();
+
+        // a crossing that does not hold for three frames is ignored
+        for (float score : new float[]{0.7f, 0.7f, 0.2f, 0.7f, 0.7f}) {
+            engine.update(new float[]{score});
+        }
+        assertTrue(listener.events.isEmpty());
+        assertFalse(engine.isSpeakerActive(0));
+
+        engine.update(new float[]{0.7f});
+        assertEquals(Arrays.asList("enter 0@5"), listener.events);
+
+        for (float score : new float[]{0.1f, 0.1f, 0.1f}) {
+            engine.update(new float[]{score});
+        }
+        assertEquals(Arrays.asList("enter 0@5", "leave 0@8"), listener.events);
+    }
+
+    @Test
+    public void testThrowingListenerLeavesStateConsistent() throws Exception {
+        final RecordingListener recorder = new RecordingListener();
+        EagleDecisionEngine engine = new EagleDecisionEngine.Builder()
+                .setNumSpeakers(2)
+                .setSmoothingFactor(0)
+                .setThresholds(0.6f, 0.4f)
+                .setListener(new EagleDecisionListener() {
+                    @Override
+                    public void onSpeakerEnter(int speakerIndex, long frameIndex, float score) throws EagleException {
+                        throw new EagleInvalidStateException("listener failed");
+                    }
+
+                    @Override
+                    public void onSpeakerLeave(int speakerIndex, long frameIndex, float score) throws EagleException {
+                        recorder.onSpeakerLeave(speakerIndex, frameIndex, score);
+                    }
+                })
+                .build();
+
+        boolean didFail = false;
+        try {
+            engine.update(new float[]{0.7f, 0.9f});
+        } catch (EagleInvalidStateException e) {
+            didFail = true;
+        }
+        assertTrue(didFail);
+
+        // both speakers entered and the frame was counted even though the first notification threw
+        assertTrue(engine.isSpeakerActive(0));
+        assertTrue(engine.isSpeakerActive(1));
+        assertEquals(0.9f, engine.getSmoothedScore(1), 0);
+
+        engine.update(new float[]{0.1f, 0.1f});
+        assertEquals(Arrays.asList("leave 0@1", "leave 1@1"), recorder.events);
+    }
+
+    @Test
+    public void testInvalidScores() throws Exception {
+        EagleDecisionEngine engine = new EagleDecisionEngine.Builder()
+                .setNumSpeakers(2)
+                .setListener(new RecordingListener())
+                .build();
+
+        boolean didFail = false;
+        try {
+            engine.update(new float[1]);
+        } catch (EagleInvalidArgumentException e) {
+            didFail = true;
+        }
+        assertTrue(didFail);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class EagleDutyCycleTest {
+
+    private static final float LEVEL = -20f;
+    private static final float[] STABLE_SCORES = {0.8f, 0.1f};
+
+    private static EagleDutyCycle newDutyCycle() throws EagleException {
+        return newDutyCycle(3, 1);
+    }
+
+    private static EagleDutyCycle newDutyCycle(int frameInterval, int burstLength) throws EagleException {
+        return new EagleDutyCycle.Builder()
+                .setSmoothingFactor(0)
+                .setScoreTolerance(0.05f)
+                .setLevelTolerance(6f)
+                .setMinStableFrames(2)
+                .setFrameInterval(frameInterval)
+                .setBurstLength(burstLength)
+                .build();
+    }
+
+    /**
+     * Scores like Eagle does with respect to context: right after a reset the score is far from its steady-state
+     * value, and it converges as the engine sees more contiguous frames.
+     */
+    private static final class ContextModel {
+
+        private static final float STEADY_SCORE = 0.8f;
+
+        private int numFramesSinceReset = 0;
+
+        void reset() {
+            numFramesSinceReset = 0;
+        }
+
+        float[] process() {
+            numFramesSinceReset++;
+            return new float[]{STEADY_SCORE * (1 - (float) Math.pow(0.3, numFramesSinceReset)), 0.1f};
+        }
+    }
+
+    /**
+     * Drives a duty cycle the way `EagleStream` does, and returns how often it fell back from reduced to full rate.
+     */
+    private static int runWithModel(EagleDutyCycle dutyCycle, int numFrames) {
+        ContextModel model = new ContextModel();
+        int numFallbacks = 0;
+        for (int i = 0; i < numFrames; i++) {
+            boolean wasReducedRate = dutyCycle.isReducedRate();
+            int action = dutyCycle.nextFrame(LEVEL);
+            if (action == EagleDutyCycle.RESET_AND_PROCESS || action == EagleDutyCycle.RESET_AND_WARM_UP) {
+                model.reset();
+            }
+
+            if (action == EagleDutyCycle.WARM_UP || action == EagleDutyCycle.RESET_AND_WARM_UP) {
+                model.process();
+            } else if (action != EagleDutyCycle.SKIP) {
+                if (dutyCycle.onProcessed(model.process(), LEVEL)) {
+                    model.reset();
+                }
+            }
+
+            if (wasReducedRate && !dutyCycle.isReducedRate()) {
+                numFallbacks++;
+            }
+        }
+        return numFallbacks;
+    }
+
+    private static void enterReducedRate(EagleDutyCycle dutyCycle) {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(EagleDutyCycle.PROCESS, dutyCycle.nextFrame(LEVEL));
+            assertFalse(dutyCycle.onProcessed(STABLE_SCORES, LEVEL));
+        }
+        assertTrue(dutyCycle.isReducedRate());
+    }
+
+    @Test
+    public void testSampledFramesAreResetAndProcessed() throws Exception {
+        EagleDutyCycle dutyCycle = newDutyCycle();
+        enterReducedRate(dutyCycle);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(EagleDutyCycle.SKIP, dutyCycle.nextFrame(LEVEL));
+            assertEquals(EagleDutyCycle.SKIP, dutyCycle.nextFrame(LEVEL));
+            // the skipped frames were never seen by Eagle, so the sampled frame starts from a clean state
+            assertEquals(EagleDutyCycle.RESET_AND_PROCESS, dutyCycle.nextFrame(LEVEL));
+            assertFalse(dutyCycle.onProcessed(STABLE_SCORES, LEVEL));
+            assertTrue(dutyCycle.isReducedRate());
+        }
+    }
+
+    @Test
+    public void testLevelChangeResumesFullRate() throws Exception {
+        EagleDutyCycle dutyCycle = newDutyCycle();
+        enterReducedRate(dutyCycle);
+
+        assertEquals(EagleDutyCycle.SKIP, dutyCycle.nextFrame(LEVEL + 3));
+        assertEquals(EagleDutyCycle.RESET_AND_PROCESS, dutyCycle.nextFrame(LEVEL + 10));
+        assertFalse(dutyCycle.isReducedRate());
+        assertEquals(EagleDutyCycle.PROCESS, dutyCycle.nextFrame(LEVEL + 10));
+    }
+
+    @Test
+    public void testScoreChangeResumesFullRate() throws Exception {
+        EagleDutyCycle dutyCycle = newDutyCycle();
+        enterReducedRate(dutyCycle);
+
+        dutyCycle.nextFrame(LEVEL);
+        dutyCycle.nextFrame(LEVEL);
+        assertEquals(EagleDutyCycle.RESET_AND_PROCESS, dutyCycle.nextFrame(LEVEL));
+        assertTrue(dutyCycle.onProcessed(new float[]{0.3f, 0.1f}, LEVEL));
+        assertFalse(dutyCycle.isReducedRate());
+        assertEquals(EagleDutyCycle.PROCESS, dutyCycle.nextFrame(LEVEL));
+    }
+
+    @Test
+    public void testUnstableScoresKeepFullRate() throws Exception {
+        EagleDutyCycle dutyCycle = newDutyCycle();
+
+        float[] topScores = {0.2f, 0.5f, 0.8f, 0.4f, 0.9f};
+        for (float topScore : topScores) {
+            assertEquals(EagleDutyCycle.PROCESS, dutyCycle.nextFrame(LEVEL));
+            assertFalse(dutyCycle.onProcessed(new float[]{topScore}, LEVEL));
+        }
+        assertFalse(dutyCycle.isReducedRate());
+    }
+
+    @Test
+    public void testBurstWarmsUpBeforeReporting() throws Exception {
+        EagleDutyCycle dutyCycle = newDutyCycle(5, 3);
+        enterReducedRate(dutyCycle);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(EagleDutyCycle.SKIP, dutyCycle.nextFrame(LEVEL));
+            assertEquals(EagleDutyCycle.SKIP, dutyCycle.nextFrame(LEVEL));
+            assertEquals(EagleDutyCycle.RESET_AND_WARM_UP, dutyCycle.nextFrame(LEVEL));
+            assertEquals(EagleDutyCycle.WARM_UP, dutyCycle.nextFrame(LEVEL));
+            assertEquals(EagleDutyCycle.PROCESS, dutyCycle.nextFrame(LEVEL));
+            assertFalse(dutyCycle.onProcessed(STABLE_SCORES, LEVEL));
+            assertTrue(dutyCycle.isReducedRate());
+        }
+    }
+
+    @Test
+    public void testLevelChangeDuringBurstResumesFullRate() throws Exception {
+        EagleDutyCycle dutyCycle = newDutyCycle(4, 3);
+        enterReducedRate(dutyCycle);
+
+        assertEquals(EagleDutyCycle.SKIP, dutyCycle.nextFrame(LEVEL));
+        assertEquals(EagleDutyCycle.RESET_AND_WARM_UP, dutyCycle.nextFrame(LEVEL));
+        assertEquals(EagleDutyCycle.RESET_AND_PROCESS, dutyCycle.nextFrame(LEVEL + 10));
+        assertFalse(dutyCycle.isReducedRate());
+    }
+
+    @Test
+    public void testIsolatedFramesAfterResetAreUnstable() throws Exception {
+        // a single frame scored from a reset state never matches the steady-state scores
+        EagleDutyCycle dutyCycle = newDutyCycle(4, 1);
+        assertTrue(runWithModel(dutyCycle, 400) > 10);
+    }
+
+    @Test
+    public void testBurstReachesSteadyStateScores() throws Exception {
+        EagleDutyCycle dutyCycle = newDutyCycle(8, 3);
+
+        // once the rate is reduced, it stays reduced
+        assertEquals(0, runWithModel(dutyCycle, 400));
+        assertTrue(dutyCycle.isReducedRate());
+    }
+
+    @Test
+    public void testInvalidBurstLength() throws Exception {
+        boolean didFail = false;
+        try {
+            new EagleDutyCycle.Builder().setBurstLength(0).build();
+        } catch (EagleInvalidArgumentException e) {
+            didFail = true;
+        }
+        assertTrue(didFail);
+
+        didFail = false;
+        try {
+            new EagleDutyCycle.Builder().setFrameInterval(2).setBurstLength(3).build();
+        } catch (EagleInvalidArgumentException e) {
+            didFail = true;
+        }
+        assertTrue(didFail);
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        EagleDutyCycle dutyCycle = newDutyCycle();
+        enterReducedRate(dutyCycle);
+
+        dutyCycle.reset();
+        assertFalse(dutyCycle.isReducedRate());
+        assertEquals(EagleDutyCycle.PROCESS, dutyCycle.nextFrame(LEVEL));
+    }
+}
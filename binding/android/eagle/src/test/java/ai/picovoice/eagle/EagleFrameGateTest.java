@@ -0,0 +1,120 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class EagleFrameGateTest {
+
+    private static final int FRAME_LENGTH = 512;
+    private static final int SAMPLE_RATE = 16000;
+
+    private static short[] tone(double frequency, double amplitude) {
+        short[] frame = new short[FRAME_LENGTH];
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = (short) (amplitude * Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE));
+        }
+        return frame;
+    }
+
+    private static short[] noise(int amplitude, long seed) {
+        Random random = new Random(seed);
+        short[] frame = new short[FRAME_LENGTH];
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = (short) (random.nextInt(2 * amplitude + 1) - amplitude);
+        }
+        return frame;
+    }
+
+    @Test
+    public void testSilenceIsSkipped() throws Exception {
+        EagleFrameGate gate = new EagleFrameGate.Builder()
+                .setHangoverFrames(0)
+                .build();
+
+        assertFalse(gate.shouldProcess(new short[FRAME_LENGTH]));
+        assertEquals(Float.NEGATIVE_INFINITY, gate.getLastLevel(), 0);
+
+        // a quiet tone stays below the default threshold of -45 dBFS
+        assertFalse(gate.shouldProcess(tone(200, 100)));
+    }
+
+    @Test
+    public void testToneIsProcessed() throws Exception {
+        EagleFrameGate gate = new EagleFrameGate.Builder()
+                .setHangoverFrames(0)
+                .setMaxZeroCrossingRate(0.3f)
+                .build();
+
+        assertTrue(gate.shouldProcess(tone(200, 10000)));
+        // the RMS of a sine is its amplitude divided by sqrt(2)
+        assertEquals(20 * Math.log10(10000 / (Short.MAX_VALUE * Math.sqrt(2))), gate.getLastLevel(), 0.1);
+    }
+
+    @Test
+    public void testNoiseIsRejectedByZeroCrossingRate() throws Exception {
+        EagleFrameGate gate = new EagleFrameGate.Builder()
+                .setHangoverFrames(0)
+                .setMaxZeroCrossingRate(0.3f)
+                .build();
+
+        // white noise changes sign between about half of the adjacent samples
+        assertFalse(gate.shouldProcess(noise(10000, 42)));
+
+        EagleFrameGate unchecked = new EagleFrameGate.Builder()
+                .setHangoverFrames(0)
+                .build();
+        assertTrue(unchecked.shouldProcess(noise(10000, 42)));
+    }
+
+    @Test
+    public void testZeroCrossingRateDoesNotExceedOne() throws Exception {
+        EagleFrameGate gate = new EagleFrameGate.Builder()
+                .setHangoverFrames(0)
+                .setMaxZeroCrossingRate(1f)
+                .build();
+
+        // every adjacent pair crosses zero, and the first sample is negative
+        short[] frame = new short[FRAME_LENGTH];
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = (short) ((i % 2 == 0) ? -10000 : 10000);
+        }
+        assertTrue(gate.shouldProcess(frame));
+    }
+
+    @Test
+    public void testHangover() throws Exception {
+        EagleFrameGate gate = new EagleFrameGate.Builder()
+                .setHangoverFrames(2)
+                .build();
+        short[] speech = tone(200, 10000);
+        short[] silence = new short[FRAME_LENGTH];
+
+        assertTrue(gate.shouldProcess(speech));
+        assertTrue(gate.shouldProcess(silence));
+        assertTrue(gate.shouldProcess(silence));
+        assertFalse(gate.shouldProcess(silence));
+
+        // speech restarts the hangover, and reset clears it
+        assertTrue(gate.shouldProcess(speech));
+        assertTrue(gate.shouldProcess(silence));
+        gate.reset();
+        assertFalse(gate.shouldProcess(silence));
+    }
+}
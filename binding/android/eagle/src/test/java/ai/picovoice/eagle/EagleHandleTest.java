@@ -0,0 +1,119 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EagleHandleTest {
+
+    private static final class CountingHandle extends EagleHandle {
+
+        final AtomicInteger numFreed = new AtomicInteger();
+
+        CountingHandle(long handle) {
+            super(handle);
+        }
+
+        @Override
+        void free(long handle) {
+            numFreed.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testCloseFreesOnce() {
+        int numLive = EagleHandle.getNumLive();
+        CountingHandle handle = new CountingHandle(42);
+        assertEquals(numLive + 1, EagleHandle.getNumLive());
+
+        handle.close();
+        handle.close();
+
+        assertTrue(handle.isClosed());
+        assertEquals(1, handle.numFreed.get());
+        assertEquals(numLive, EagleHandle.getNumLive());
+    }
+
+    @Test
+    public void testAcquireAfterClose() {
+        CountingHandle handle = new CountingHandle(42);
+        assertEquals(42, handle.acquire());
+        handle.release();
+
+        handle.close();
+        assertEquals(0, handle.acquire());
+        assertEquals(1, handle.numFreed.get());
+    }
+
+    @Test
+    public void testCloseDuringCallDefersFree() {
+        CountingHandle handle = new CountingHandle(42);
+        assertEquals(42, handle.acquire());
+        assertEquals(42, handle.acquire());
+
+        handle.close();
+        assertEquals(0, handle.acquire());
+        assertEquals(0, handle.numFreed.get());
+
+        handle.release();
+        assertEquals(0, handle.numFreed.get());
+        handle.release();
+        assertEquals(1, handle.numFreed.get());
+    }
+
+    @Test
+    public void testConcurrentCallsAndClose() throws Exception {
+        final CountingHandle handle = new CountingHandle(42);
+        final CountDownLatch started = new CountDownLatch(4);
+        final AtomicInteger numCalls = new AtomicInteger();
+        final AtomicInteger numUsesAfterFree = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    while (handle.acquire() != 0) {
+                        // a call in flight must never see a freed handle
+                        if (handle.numFreed.get() != 0) {
+                            numUsesAfterFree.incrementAndGet();
+                        }
+                        numCalls.incrementAndGet();
+                        handle.release();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(20);
+        handle.close();
+        for (Thread thread : threads) {
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+        }
+
+        assertTrue(numCalls.get() > 0);
+        assertEquals(0, numUsesAfterFree.get());
+        assertEquals(1, handle.numFreed.get());
+    }
+}
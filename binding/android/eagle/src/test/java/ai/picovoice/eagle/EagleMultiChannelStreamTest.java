@@ -0,0 +1,57 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+public class EagleMultiChannelStreamTest {
+
+    @Test
+    public void testDownmixAveragesChannels() {
+        short[] pcm = {
+                -1, -1, -1,
+                100, 200, 300,
+                Short.MAX_VALUE, Short.MAX_VALUE, Short.MAX_VALUE,
+                Short.MIN_VALUE, Short.MIN_VALUE, Short.MIN_VALUE,
+                1, 1, 0,
+                42, 42, 42
+        };
+        short[] mono = new short[6];
+
+        // starts at the second frame, and leaves the last element of `mono` untouched
+        EagleMultiChannelStream.downmix(pcm, 3, 3, mono, 5);
+        assertArrayEquals(new short[]{200, Short.MAX_VALUE, Short.MIN_VALUE, 0, 42, 0}, mono);
+    }
+
+    @Test
+    public void testDownmixSingleChannelCopies() {
+        short[] pcm = {5, -6, 7, -8};
+        short[] mono = new short[4];
+
+        EagleMultiChannelStream.downmix(pcm, 0, 1, mono, 4);
+        assertArrayEquals(pcm, mono);
+    }
+
+    @Test
+    public void testDeinterleaveSplitsChannels() {
+        short[] pcm = {99, 10, 20, 30, 11, 21, 31, 12, 22, 32};
+        short[][] channels = new short[3][4];
+
+        EagleMultiChannelStream.deinterleave(pcm, 1, 3, channels, 3);
+        assertArrayEquals(new short[]{10, 11, 12, 0}, channels[0]);
+        assertArrayEquals(new short[]{20, 21, 22, 0}, channels[1]);
+        assertArrayEquals(new short[]{30, 31, 32, 0}, channels[2]);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class EagleParallelInvokerTest {
+
+    private static final int NUM_TASKS = 4;
+
+    private static class CountingTask implements EagleParallelInvoker.Task {
+
+        final AtomicIntegerArray numRuns = new AtomicIntegerArray(NUM_TASKS);
+        volatile int failingIndex = -1;
+
+        @Override
+        public void run(int index) throws EagleException {
+            numRuns.incrementAndGet(index);
+            if (index == failingIndex) {
+                throw new EagleInvalidStateException("task failed");
+            }
+        }
+    }
+
+    /**
+     * Owns an invoker whose task references the owner, like `ShardedEagle` does, and never shuts it down.
+     */
+    private static final class Owner {
+
+        final EagleParallelInvoker invoker;
+        final AtomicIntegerArray numRuns = new AtomicIntegerArray(NUM_TASKS);
+
+        Owner(String name) {
+            invoker = new EagleParallelInvoker(name, NUM_TASKS, new EagleParallelInvoker.Task() {
+                @Override
+                public void run(int index) {
+                    numRuns.incrementAndGet(index);
+                }
+            });
+            EagleCleaner.register(this, invoker.getShutdownAction());
+        }
+    }
+
+    private static void assertNumRuns(CountingTask task, int expected) {
+        for (int i = 0; i < NUM_TASKS; i++) {
+            assertEquals(expected, task.numRuns.get(i));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testDedicatedWorkersRunEveryTask() throws Exception {
+        CountingTask task = new CountingTask();
+        EagleParallelInvoker invoker = new EagleParallelInvoker("test", NUM_TASKS, task);
+        try {
+            for (int i = 1; i <= 1000; i++) {
+                invoker.invokeAll();
+                assertNumRuns(task, i);
+            }
+        } finally {
+            invoker.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testExecutorRunsEveryTask() throws Exception {
+        CountingTask task = new CountingTask();
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_TASKS - 1);
+        try {
+            EagleParallelInvoker invoker = new EagleParallelInvoker(executor, NUM_TASKS, task);
+            for (int i = 1; i <= 100; i++) {
+                invoker.invokeAll();
+                assertNumRuns(task, i);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testErrorIsRethrownAfterAllTasks() throws Exception {
+        CountingTask task = new CountingTask();
+        EagleParallelInvoker invoker = new EagleParallelInvoker("test", NUM_TASKS, task);
+        try {
+            task.failingIndex = 2;
+            boolean didFail = false;
+            try {
+                invoker.invokeAll();
+            } catch (EagleInvalidStateException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+            assertNumRuns(task, 1);
+
+            // the error does not carry over to the next invocation
+            task.failingIndex = -1;
+            invoker.invokeAll();
+            assertNumRuns(task, 2);
+        } finally {
+            invoker.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testShutdownStopsWorkers() throws Exception {
+        CountingTask task = new CountingTask();
+        EagleParallelInvoker invoker = new EagleParallelInvoker("shutdown-test", NUM_TASKS, task);
+        invoker.invokeAll();
+        invoker.shutdown();
+        invoker.shutdown();
+
+        for (int i = 0; i < 500 && hasThread("shutdown-test"); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(hasThread("shutdown-test"));
+
+        boolean didFail = false;
+        try {
+            invoker.invokeAll();
+        } catch (EagleInvalidStateException e) {
+            didFail = true;
+        }
+        assertTrue(didFail);
+    }
+
+    @Test(timeout = 30000)
+    public void testUnreachableOwnerStopsWorkers() throws Exception {
+        runAndDropOwner("unreachable-test");
+        assertTrue(hasThread("unreachable-test"));
+
+        for (int i = 0; i < 200 && hasThread("unreachable-test"); i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertFalse(hasThread("unreachable-test"));
+    }
+
+    private static void runAndDropOwner(String name) throws EagleException {
+        Owner owner = new Owner(name);
+        for (int i = 0; i < 10; i++) {
+            owner.invoker.invokeAll();
+        }
+        assertEquals(10, owner.numRuns.get(NUM_TASKS - 1));
+    }
+
+    private static boolean hasThread(String prefix) {
+        Thread[] threads = new Thread[Thread.activeCount() * 2 + 16];
+        int numThreads = Thread.enumerate(threads);
+        for (int i = 0; i < numThreads; i++) {
+            if (threads[i].getName().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
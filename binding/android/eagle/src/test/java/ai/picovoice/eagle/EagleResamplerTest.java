@@ -0,0 +1,119 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class EagleResamplerTest {
+
+    private static final int OUTPUT_SAMPLE_RATE = 16000;
+    private static final double AMPLITUDE = 10000;
+
+    private static short[] sine(double frequency, int sampleRate, int numSamples) {
+        short[] pcm = new short[numSamples];
+        for (int i = 0; i < numSamples; i++) {
+            pcm[i] = (short) Math.round(AMPLITUDE * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+        }
+        return pcm;
+    }
+
+    private static short[] resample(EagleResampler resampler, short[] pcm, int[] chunkLengths) throws EagleException {
+        short[] out = new short[resampler.getMaxOutputLength(pcm.length) + chunkLengths.length + pcm.length];
+        int numWritten = 0;
+        int offset = 0;
+        for (int i = 0; offset < pcm.length; i++) {
+            int length = Math.min(chunkLengths[i % chunkLengths.length], pcm.length - offset);
+            numWritten += resampler.process(pcm, offset, length, out, numWritten);
+            offset += length;
+        }
+        return Arrays.copyOf(out, numWritten);
+    }
+
+    private static short[] resample(EagleResampler resampler, short[] pcm) throws EagleException {
+        return resample(resampler, pcm, new int[]{pcm.length});
+    }
+
+    /**
+     * RMS of the output after the filter has settled, relative to the RMS of a sine of `AMPLITUDE`.
+     */
+    private static double relativeRms(short[] pcm) {
+        int start = pcm.length / 4;
+        double sumOfSquares = 0;
+        for (int i = start; i < pcm.length; i++) {
+            sumOfSquares += (double) pcm[i] * pcm[i];
+        }
+        return Math.sqrt(sumOfSquares / (pcm.length - start)) / (AMPLITUDE / Math.sqrt(2));
+    }
+
+    @Test
+    public void testOutputLengthMatchesRatio() throws Exception {
+        for (int inputSampleRate : new int[]{8000, 44100, 48000}) {
+            EagleResampler resampler = new EagleResampler(inputSampleRate, OUTPUT_SAMPLE_RATE);
+            short[] input = new short[inputSampleRate];
+
+            // one second of input gives one second of output, in one chunk or in many
+            assertEquals(OUTPUT_SAMPLE_RATE, resample(resampler, input).length);
+            resampler.reset();
+            assertEquals(OUTPUT_SAMPLE_RATE, resample(resampler, input, new int[]{441, 160, 7}).length);
+        }
+    }
+
+    @Test
+    public void testPassBandAmplitudeIsKept() throws Exception {
+        for (int inputSampleRate : new int[]{8000, 44100, 48000}) {
+            EagleResampler resampler = new EagleResampler(inputSampleRate, OUTPUT_SAMPLE_RATE);
+            short[] output = resample(resampler, sine(1000, inputSampleRate, inputSampleRate));
+
+            assertEquals(
+                    String.format("Gain at 1 kHz from %d Hz", inputSampleRate),
+                    1.0,
+                    relativeRms(output),
+                    0.02);
+        }
+    }
+
+    @Test
+    public void testToneAboveOutputNyquistIsAttenuated() throws Exception {
+        EagleResampler resampler = new EagleResampler(48000, OUTPUT_SAMPLE_RATE);
+
+        // without filtering, 12 kHz would alias to 4 kHz at the output rate
+        short[] output = resample(resampler, sine(12000, 48000, 48000));
+        double gain = relativeRms(output);
+        assertTrue(String.format("Gain at 12 kHz is %.4f", gain), gain < 0.01);
+    }
+
+    @Test
+    public void testChunkingDoesNotChangeOutput() throws Exception {
+        Random random = new Random(42);
+        for (int inputSampleRate : new int[]{8000, 44100, 48000}) {
+            short[] input = new short[inputSampleRate];
+            for (int i = 0; i < input.length; i++) {
+                input[i] = (short) (random.nextGaussian() * 3000);
+            }
+
+            EagleResampler resampler = new EagleResampler(inputSampleRate, OUTPUT_SAMPLE_RATE);
+            short[] whole = resample(resampler, input);
+            resampler.reset();
+            short[] chunked = resample(resampler, input, new int[]{1, 7, 13, 101, 1023, 2049});
+
+            assertArrayEquals(whole, chunked);
+        }
+    }
+}
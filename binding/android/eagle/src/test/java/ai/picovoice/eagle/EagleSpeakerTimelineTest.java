@@ -0,0 +1,130 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class EagleSpeakerTimelineTest {
+
+    private static final int FRAME_LENGTH = 10;
+
+    private static class RecordingListener implements EagleSpeakerTimelineListener {
+
+        final List<String> segments = new ArrayList<>();
+        int numFailures = 0;
+
+        @Override
+        public void onSegment(int speakerIndex, long startSample, long endSample, float meanScore)
+                throws EagleException {
+            if (numFailures > 0) {
+                numFailures--;
+                throw new EagleInvalidStateException("listener failed");
+            }
+            segments.add(String.format("%d:[%d,%d)", speakerIndex, startSample, endSample));
+        }
+    }
+
+    private static EagleSpeakerTimeline newTimeline(
+            RecordingListener listener,
+            int numSpeakers,
+            int maxGapFrames,
+            int minSegmentFrames) throws EagleException {
+        return new EagleSpeakerTimeline.Builder()
+                .setListener(listener)
+                .setNumSpeakers(numSpeakers)
+                .setFrameLength(FRAME_LENGTH)
+                .setThreshold(0.5f)
+                .setMaxGapFrames(maxGapFrames)
+                .setMinSegmentFrames(minSegmentFrames)
+                .build();
+    }
+
+    private static void update(EagleSpeakerTimeline timeline, float... scores) throws EagleException {
+        for (float score : scores) {
+            timeline.update(new float[]{score});
+        }
+    }
+
+    @Test
+    public void testGapWithinMaximumIsBridged() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        EagleSpeakerTimeline timeline = newTimeline(listener, 1, 2, 1);
+
+        update(timeline, 0.9f, 0.9f, 0.1f, 0.1f, 0.9f);
+        assertTrue(listener.segments.isEmpty());
+
+        update(timeline, 0.1f, 0.1f, 0.1f);
+        assertEquals(Arrays.asList("0:[0,50)"), listener.segments);
+        assertEquals(8 * FRAME_LENGTH, timeline.getNumSamples());
+    }
+
+    @Test
+    public void testGapLongerThanMaximumSplitsSegments() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        EagleSpeakerTimeline timeline = newTimeline(listener, 1, 1, 1);
+
+        update(timeline, 0.9f, 0.1f, 0.1f, 0.9f);
+        timeline.flush();
+        assertEquals(Arrays.asList("0:[0,10)", "0:[30,40)"), listener.segments);
+    }
+
+    @Test
+    public void testShortSegmentsAreDropped() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        EagleSpeakerTimeline timeline = newTimeline(listener, 2, 0, 3);
+
+        timeline.update(new float[]{0.9f, 0.1f});
+        timeline.update(new float[]{0.9f, 0.1f});
+        for (int i = 0; i < 3; i++) {
+            timeline.update(new float[]{0.1f, 0.9f});
+        }
+        timeline.update(new float[]{0.8f, 0.1f});
+        timeline.flush();
+
+        // speaker 0 is dominant for two frames, then one, both below the minimum of three
+        assertEquals(Arrays.asList("1:[20,50)"), listener.segments);
+    }
+
+    @Test
+    public void testThrowingListenerDoesNotSkipFrames() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        EagleSpeakerTimeline timeline = new EagleSpeakerTimeline.Builder()
+                .setListener(listener)
+                .setNumSpeakers(2)
+                .setFrameLength(FRAME_LENGTH)
+                .build();
+
+        timeline.update(new float[]{0.9f, 0.1f});
+        listener.numFailures = 1;
+        boolean didFail = false;
+        try {
+            timeline.update(new float[]{0.1f, 0.9f});
+        } catch (EagleInvalidStateException e) {
+            didFail = true;
+        }
+        assertTrue(didFail);
+
+        // the failed frame was counted and opened the segment of speaker 1
+        assertEquals(2 * FRAME_LENGTH, timeline.getNumSamples());
+        timeline.update(new float[]{0.1f, 0.9f});
+        timeline.flush();
+        assertEquals(Arrays.asList("1:[10,30)"), listener.segments);
+    }
+}
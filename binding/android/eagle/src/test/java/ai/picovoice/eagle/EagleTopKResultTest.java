@@ -0,0 +1,127 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package ai.picovoice.eagle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class EagleTopKResultTest {
+
+    private static EagleTopKResult select(float[] scores, int k, float minScore) {
+        EagleTopKResult result = new EagleTopKResult(k);
+        result.select(scores, scores.length, k, minScore);
+        return result;
+    }
+
+    private static void assertEntries(EagleTopKResult result, int[] speakerIndices, float[] scores) {
+        assertEquals(speakerIndices.length, result.getSize());
+        for (int rank = 0; rank < speakerIndices.length; rank++) {
+            assertEquals(speakerIndices[rank], result.getSpeakerIndex(rank));
+            assertEquals(scores[rank], result.getScore(rank), 0);
+        }
+    }
+
+    @Test
+    public void testSelectsBestInDescendingOrder() {
+        EagleTopKResult result = select(new float[]{0.2f, 0.9f, 0.4f, 0.7f, 0.1f}, 3, 0);
+        assertEntries(result, new int[]{1, 3, 2}, new float[]{0.9f, 0.7f, 0.4f});
+    }
+
+    @Test
+    public void testKLargerThanNumSpeakers() {
+        EagleTopKResult result = select(new float[]{0.3f, 0.8f, 0.5f}, 10, 0);
+        assertEquals(10, result.getCapacity());
+        assertEntries(result, new int[]{1, 2, 0}, new float[]{0.8f, 0.5f, 0.3f});
+    }
+
+    @Test
+    public void testMinScoreFiltersSpeakers() {
+        EagleTopKResult result = select(new float[]{0.3f, 0.8f, 0.5f, 0.6f}, 3, 0.5f);
+        assertEntries(result, new int[]{1, 3, 2}, new float[]{0.8f, 0.6f, 0.5f});
+    }
+
+    @Test
+    public void testAllBelowThreshold() {
+        EagleTopKResult result = select(new float[]{0.1f, 0.2f, Float.NaN}, 2, 0.5f);
+        assertEquals(0, result.getSize());
+
+        boolean didFail = false;
+        try {
+            result.getSpeakerIndex(0);
+        } catch (IndexOutOfBoundsException e) {
+            didFail = true;
+        }
+        assertTrue(didFail);
+    }
+
+    @Test
+    public void testTiesKeepEarliestSpeakers() {
+        EagleTopKResult result = select(new float[]{0.5f, 0.5f, 0.5f, 0.5f}, 2, 0);
+        assertEquals(2, result.getSize());
+
+        Set<Integer> speakerIndices = new HashSet<>();
+        for (int rank = 0; rank < result.getSize(); rank++) {
+            assertEquals(0.5f, result.getScore(rank), 0);
+            speakerIndices.add(result.getSpeakerIndex(rank));
+        }
+        assertEquals(new HashSet<>(Arrays.asList(0, 1)), speakerIndices);
+    }
+
+    @Test
+    public void testReuseOverwritesPreviousResult() {
+        EagleTopKResult result = new EagleTopKResult(3);
+        result.select(new float[]{0.9f, 0.8f, 0.7f, 0.6f}, 4, 3, 0);
+        assertEntries(result, new int[]{0, 1, 2}, new float[]{0.9f, 0.8f, 0.7f});
+
+        // fewer speakers, a smaller k and a threshold: nothing of the previous frame may leak through
+        result.select(new float[]{0.2f, 0.4f, 0.95f, 0.1f}, 4, 2, 0.3f);
+        assertEntries(result, new int[]{2, 1}, new float[]{0.95f, 0.4f});
+
+        result.select(new float[]{0.2f, 0.4f, 0.95f, 0.1f}, 4, 3, 0.99f);
+        assertEquals(0, result.getSize());
+    }
+
+    @Test
+    public void testMatchesSortedSelection() {
+        Random random = new Random(42);
+        EagleTopKResult result = new EagleTopKResult(16);
+        for (int trial = 0; trial < 500; trial++) {
+            int numScores = 1 + random.nextInt(64);
+            float[] scores = new float[numScores];
+            for (int i = 0; i < numScores; i++) {
+                scores[i] = random.nextFloat();
+            }
+            int k = 1 + random.nextInt(16);
+            float minScore = random.nextFloat() * 0.5f;
+
+            result.select(scores, numScores, k, minScore);
+
+            float[] sorted = scores.clone();
+            Arrays.sort(sorted);
+            int numExpected = 0;
+            for (int i = sorted.length - 1; i >= 0 && numExpected < k && sorted[i] >= minScore; i--) {
+                assertEquals(sorted[i], result.getScore(numExpected), 0);
+                assertEquals(sorted[i], scores[result.getSpeakerIndex(numExpected)], 0);
+                numExpected++;
+            }
+            assertEquals(numExpected, result.getSize());
+        }
+    }
+}
@@ -26,16 +26,13 @@ import org.junit.Rule;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.Arrays;
+
+import ai.picovoice.eagle.EagleAudioFile;
 
 public class BaseTest {
     protected final String[] enrollPaths = {
@@ -75,20 +72,11 @@ public class BaseTest {
     }
 
     protected static short[] readAudioFile(String audioFile) throws Exception {
-        FileInputStream audioInputStream = new FileInputStream(audioFile);
-        ByteArrayOutputStream audioByteBuffer = new ByteArrayOutputStream();
-        byte[] buffer = new byte[1024];
-        for (int length; (length = audioInputStream.read(buffer)) != -1; ) {
-            audioByteBuffer.write(buffer, 0, length);
+        try (EagleAudioFile file = EagleAudioFile.open(new File(audioFile))) {
+            short[] pcm = new short[(int) file.getNumSamples() * file.getNumChannels()];
+            file.read(0, pcm, 0, (int) file.getNumSamples());
+            return pcm;
         }
-        byte[] rawData = audioByteBuffer.toByteArray();
-
-        short[] pcm = new short[rawData.length / 2];
-        ByteBuffer pcmBuff = ByteBuffer.wrap(rawData).order(ByteOrder.LITTLE_ENDIAN);
-        pcmBuff.asShortBuffer().get(pcm);
-        pcm = Arrays.copyOfRange(pcm, 44, pcm.length);
-
-        return pcm;
     }
 
     private void extractAssetsRecursively(String path) throws IOException {
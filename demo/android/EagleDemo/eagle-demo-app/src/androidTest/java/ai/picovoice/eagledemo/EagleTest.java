@@ -12,8 +12,14 @@
 
 package ai.picovoice.eagledemo;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.After;
 import org.junit.Before;
@@ -22,10 +28,20 @@ import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import ai.picovoice.eagle.*;
 
@@ -35,6 +51,9 @@ public class EagleTest {
 
     public static class StandardTests extends BaseTest {
 
+        // size of the profile store file header
+        private static final int STORE_FIRST_RECORD_OFFSET = 16;
+
         private EagleProfiler eagleProfiler = null;
         private EagleProfile profile = null;
 
@@ -200,6 +219,158 @@ public class EagleTest {
             assertEquals(result.getFeedback(), EagleProfilerEnrollFeedback.UNKNOWN_SPEAKER);
         }
 
+        @Test
+        public void testEnrollmentSessionPartialChunks() throws Exception {
+            short[] pcm = readEnrollAudio();
+            int minEnrollSamples = eagleProfiler.getMinEnrollSamples();
+            List<EagleProfilerEnrollResult> results = new ArrayList<>();
+
+            eagleProfiler.reset();
+            EagleEnrollmentSession session = new EagleEnrollmentSession(eagleProfiler, results::add);
+
+            int chunkLength = 512;
+            int numFed = 0;
+            while (numFed < minEnrollSamples - 1) {
+                int length = Math.min(chunkLength, minEnrollSamples - 1 - numFed);
+                session.feed(pcm, numFed, length);
+                numFed += length;
+            }
+            assertTrue(results.isEmpty());
+            assertEquals(minEnrollSamples - 1, session.getNumBufferedSamples());
+            assertEquals(0, session.getPercentage(), 0);
+
+            session.feed(pcm, numFed, 1);
+            assertEquals(1, results.size());
+            assertEquals(0, session.getNumBufferedSamples());
+            assertEquals(results.get(0).getPercentage(), session.getPercentage(), 0);
+
+            // the chunks must have been reassembled in order
+            EagleProfiler reference = new EagleProfiler.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath)
+                    .build(appContext);
+            EagleProfilerEnrollResult expected = reference.enroll(Arrays.copyOf(pcm, minEnrollSamples));
+            reference.delete();
+            assertEquals(expected.getFeedback(), results.get(0).getFeedback());
+            assertEquals(expected.getPercentage(), results.get(0).getPercentage(), 0);
+        }
+
+        @Test
+        public void testEnrollmentSessionChunkLargerThanMinEnrollSamples() throws Exception {
+            short[] pcm = readEnrollAudio();
+            int minEnrollSamples = eagleProfiler.getMinEnrollSamples();
+            int numLeftover = 100;
+            List<EagleProfilerEnrollResult> results = new ArrayList<>();
+
+            eagleProfiler.reset();
+            EagleEnrollmentSession session = new EagleEnrollmentSession(eagleProfiler, results::add);
+            session.feed(pcm, 0, (2 * minEnrollSamples) + numLeftover);
+
+            assertEquals(2, results.size());
+            assertEquals(results.get(1).getPercentage(), session.getPercentage(), 0);
+            assertEquals(numLeftover, session.getNumBufferedSamples());
+            assertEquals((float) numLeftover / minEnrollSamples, session.getBufferFillRatio(), 0);
+
+            session.feed(pcm, 0, minEnrollSamples - numLeftover);
+            assertEquals(3, results.size());
+            assertEquals(0, session.getNumBufferedSamples());
+        }
+
+        @Test
+        public void testEnrollmentSessionFinishBeforeEnoughAudio() throws Exception {
+            short[] pcm = readEnrollAudio();
+            int minEnrollSamples = eagleProfiler.getMinEnrollSamples();
+            List<EagleProfilerEnrollResult> results = new ArrayList<>();
+
+            eagleProfiler.reset();
+            EagleEnrollmentSession session = new EagleEnrollmentSession(eagleProfiler, results::add);
+            session.feed(pcm, 0, minEnrollSamples / 2);
+
+            boolean didFail = false;
+            try {
+                session.finish();
+            } catch (EagleInvalidStateException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+            assertTrue(results.isEmpty());
+            assertFalse(session.isComplete());
+            assertEquals(minEnrollSamples / 2, session.getNumBufferedSamples());
+
+            for (int i = 0; i < 10 && !session.isComplete(); i++) {
+                session.feed(pcm, 0, pcm.length);
+            }
+            assertTrue(session.isComplete());
+
+            EagleProfile sessionProfile = session.finish();
+            assertNotNull(sessionProfile);
+            assertEquals(0, session.getNumBufferedSamples());
+            sessionProfile.delete();
+        }
+
+        @Test
+        public void testEnrollmentSessionReset() throws Exception {
+            short[] pcm = readEnrollAudio();
+            int minEnrollSamples = eagleProfiler.getMinEnrollSamples();
+            List<EagleProfilerEnrollResult> results = new ArrayList<>();
+
+            eagleProfiler.reset();
+            EagleEnrollmentSession session = new EagleEnrollmentSession(eagleProfiler, results::add);
+            session.feed(pcm, 0, minEnrollSamples + (minEnrollSamples / 2));
+            assertEquals(1, results.size());
+
+            session.reset();
+            assertEquals(0, session.getNumBufferedSamples());
+            assertEquals(0, session.getPercentage(), 0);
+            assertFalse(session.isComplete());
+
+            // a reset discards the buffered half, so a single step needs a full chunk again
+            session.feed(pcm, 0, minEnrollSamples - 1);
+            assertEquals(1, results.size());
+            session.feed(pcm, minEnrollSamples - 1, 1);
+            assertEquals(2, results.size());
+            assertEquals(results.get(0).getPercentage(), results.get(1).getPercentage(), 0);
+        }
+
+        @Test
+        public void testEnrollmentSessionInvalidArguments() throws Exception {
+            boolean didFail = false;
+            try {
+                new EagleEnrollmentSession(eagleProfiler, result -> { }, eagleProfiler.getMinEnrollSamples() - 1);
+            } catch (EagleInvalidArgumentException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+
+            EagleEnrollmentSession session = new EagleEnrollmentSession(eagleProfiler, result -> { });
+            didFail = false;
+            try {
+                session.feed(new short[16], 8, 16);
+            } catch (EagleInvalidArgumentException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+        }
+
+        private short[] readEnrollAudio() throws Exception {
+            short[][] utterances = new short[enrollPaths.length][];
+            int numSamples = 0;
+            for (int i = 0; i < enrollPaths.length; i++) {
+                File audioFile = new File(testResourcesPath, enrollPaths[i]);
+                utterances[i] = readAudioFile(audioFile.getAbsolutePath());
+                numSamples += utterances[i].length;
+            }
+
+            short[] pcm = new short[numSamples];
+            int offset = 0;
+            for (short[] utterance : utterances) {
+                System.arraycopy(utterance, 0, pcm, offset, utterance.length);
+                offset += utterance.length;
+            }
+            assertTrue(pcm.length > 3 * eagleProfiler.getMinEnrollSamples());
+            return pcm;
+        }
+
         @Test
         public void testEagleProcess() throws Exception {
             Eagle eagle = new Eagle.Builder()
@@ -223,6 +394,735 @@ public class EagleTest {
             eagle.delete();
         }
 
+        @Test
+        public void testEagleProcessWithScoresOut() throws Exception {
+            Eagle eagle = new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setSpeakerProfile(profile)
+                    .build(appContext);
+
+            File audioFile = new File(testResourcesPath, testPath);
+            short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+            int numFrames = pcm.length / eagle.getFrameLength();
+            float[] scores = new float[eagle.getNumSpeakers()];
+            float maxScore = 0;
+            for (int i = 0; i < numFrames; i++) {
+                eagle.process(Arrays.copyOfRange(
+                        pcm,
+                        i * eagle.getFrameLength(), (i + 1) * eagle.getFrameLength()),
+                        scores
+                );
+                maxScore = Math.max(maxScore, scores[0]);
+            }
+
+            assertTrue(maxScore > 0.5);
+
+            boolean didFail = false;
+            try {
+                eagle.process(new short[eagle.getFrameLength()], new float[0]);
+            } catch (EagleInvalidArgumentException e) {
+                didFail = true;
+            }
+
+            assertTrue(didFail);
+            eagle.delete();
+        }
+
+        @Test
+        public void testEagleProcessFrames() throws Exception {
+            Eagle eagle = new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setSpeakerProfile(profile)
+                    .build(appContext);
+
+            File audioFile = new File(testResourcesPath, testPath);
+            short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+            int numFrames = pcm.length / eagle.getFrameLength();
+            float[] scores = new float[numFrames * eagle.getNumSpeakers()];
+            eagle.processFrames(pcm, 0, numFrames, scores);
+
+            float maxScore = 0;
+            for (float score : scores) {
+                maxScore = Math.max(maxScore, score);
+            }
+
+            assertTrue(maxScore > 0.5);
+            eagle.delete();
+        }
+
+        @Test
+        public void testEagleProcessBuffers() throws Exception {
+            Eagle eagle = buildEagle(profile);
+
+            File audioFile = new File(testResourcesPath, testPath);
+            short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+            int frameLength = eagle.getFrameLength();
+            int numFrames = pcm.length / frameLength;
+            float[] expected = new float[numFrames];
+            eagle.processFrames(pcm, 0, numFrames, expected);
+
+            ByteBuffer bytes = ByteBuffer.allocateDirect(pcm.length * 2).order(ByteOrder.nativeOrder());
+            bytes.asShortBuffer().put(pcm);
+            ShortBuffer shorts = ShortBuffer.wrap(pcm);
+
+            float[] byteScores = new float[numFrames];
+            float[] shortScores = new float[numFrames];
+            float[] scores = new float[1];
+            eagle.reset();
+            for (int i = 0; i < numFrames; i++) {
+                eagle.process(bytes, i * frameLength * 2, scores);
+                byteScores[i] = scores[0];
+            }
+            eagle.reset();
+            for (int i = 0; i < numFrames; i++) {
+                eagle.process(shorts, i * frameLength, scores);
+                shortScores[i] = scores[0];
+            }
+
+            assertArrayEquals(expected, byteScores, 0);
+            assertArrayEquals(expected, shortScores, 0);
+            assertEquals(0, bytes.position());
+            assertEquals(0, shorts.position());
+            eagle.delete();
+        }
+
+        @Test
+        public void testEagleProcessTopK() throws Exception {
+            Eagle eagle = new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setSpeakerProfile(profile)
+                    .build(appContext);
+
+            File audioFile = new File(testResourcesPath, testPath);
+            short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+            int numFrames = pcm.length / eagle.getFrameLength();
+            EagleTopKResult result = null;
+            int numMatches = 0;
+            for (int i = 0; i < numFrames; i++) {
+                EagleTopKResult next = eagle.processTopK(Arrays.copyOfRange(
+                        pcm,
+                        i * eagle.getFrameLength(), (i + 1) * eagle.getFrameLength()),
+                        1,
+                        0.5f,
+                        result
+                );
+                if (result != null) {
+                    assertSame(result, next);
+                }
+                result = next;
+
+                if (result.getSize() > 0) {
+                    assertEquals(0, result.getSpeakerIndex(0));
+                    assertTrue(result.getScore(0) >= 0.5f);
+                    numMatches++;
+                }
+            }
+
+            assertTrue(numMatches > 0);
+            eagle.delete();
+        }
+
+        @Test
+        public void testNumLiveNativeObjects() throws Exception {
+            int numLive = Eagle.getNumLiveNativeObjects();
+
+            Eagle.Builder eagleBuilder = new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath)
+                    .setSpeakerProfile(profile);
+            EagleProfiler.Builder profilerBuilder = new EagleProfiler.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath);
+
+            try (Eagle eagle = eagleBuilder.build(appContext);
+                    EagleProfiler profiler = profilerBuilder.build(appContext);
+                    EagleProfile copy = new EagleProfile(profile.getBytes())) {
+                // Eagle also holds its own copy of the speaker profile
+                assertEquals(numLive + 4, Eagle.getNumLiveNativeObjects());
+                eagle.process(new short[eagle.getFrameLength()]);
+                assertTrue(profiler.getMinEnrollSamples() > 0);
+                assertTrue(copy.getBytes().length > 0);
+            }
+
+            assertEquals(numLive, Eagle.getNumLiveNativeObjects());
+        }
+
+        @Test
+        public void testEagleProfileBytesAfterDelete() {
+            byte[] profileBytes = profile.getBytes();
+
+            EagleProfile uncached = new EagleProfile(profileBytes);
+            uncached.delete();
+            EagleProfile cached = new EagleProfile(profileBytes);
+            assertArrayEquals(profileBytes, cached.getBytes());
+            cached.delete();
+
+            for (EagleProfile deleted : new EagleProfile[]{uncached, cached}) {
+                boolean didFail = false;
+                try {
+                    deleted.asReadOnlyBuffer();
+                } catch (IllegalStateException e) {
+                    didFail = true;
+                }
+                assertTrue(didFail);
+            }
+        }
+
+        @Test
+        public void testEaglePoolBorrowAndRelease() throws Exception {
+            EaglePool pool = new EaglePool.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath)
+                    .setSpeakerProfile(profile)
+                    .setSize(2)
+                    .build(appContext);
+
+            File audioFile = new File(testResourcesPath, testPath);
+            short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+            try {
+                assertEquals(2, pool.getSize());
+                assertEquals(2, pool.getNumAvailable());
+
+                Eagle first = pool.borrow();
+                Eagle second = pool.borrow(100, TimeUnit.MILLISECONDS);
+                assertNotNull(second);
+                assertNotSame(first, second);
+                assertEquals(0, pool.getNumAvailable());
+                assertNull(pool.borrow(100, TimeUnit.MILLISECONDS));
+
+                int numFrames = pcm.length / first.getFrameLength();
+                float[] scores = new float[numFrames * first.getNumSpeakers()];
+                first.processFrames(pcm, 0, numFrames, scores);
+
+                // a released engine is reset, so the next borrower starts a new stream
+                pool.release(first);
+                assertEquals(1, pool.getNumAvailable());
+                Eagle again = pool.borrow();
+                assertSame(first, again);
+                float[] scoresAgain = new float[scores.length];
+                again.processFrames(pcm, 0, numFrames, scoresAgain);
+                assertArrayEquals(scores, scoresAgain, 0);
+
+                pool.release(again);
+                pool.release(second);
+                assertEquals(2, pool.getNumAvailable());
+            } finally {
+                pool.delete();
+            }
+        }
+
+        @Test
+        public void testEaglePoolRejectsInvalidRelease() throws Exception {
+            EaglePool pool = new EaglePool.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath)
+                    .setSpeakerProfile(profile)
+                    .build(appContext);
+            Eagle foreign = new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath)
+                    .setSpeakerProfile(profile)
+                    .build(appContext);
+            try {
+                Eagle eagle = pool.borrow();
+                pool.release(eagle);
+
+                boolean didFail = false;
+                try {
+                    pool.release(eagle);
+                } catch (EagleInvalidArgumentException e) {
+                    didFail = true;
+                }
+                assertTrue(didFail);
+                assertEquals(1, pool.getNumAvailable());
+
+                didFail = false;
+                try {
+                    pool.release(foreign);
+                } catch (EagleInvalidArgumentException e) {
+                    didFail = true;
+                }
+                assertTrue(didFail);
+                assertEquals(1, pool.getNumAvailable());
+
+                // the pool does not touch engines it does not own
+                foreign.process(new short[foreign.getFrameLength()]);
+            } finally {
+                foreign.delete();
+                pool.delete();
+            }
+
+            boolean didFail = false;
+            try {
+                pool.borrow();
+            } catch (EagleInvalidStateException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+        }
+
+        @Test
+        public void testEaglePoolDeleteWakesWaiters() throws Exception {
+            final EaglePool pool = new EaglePool.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath)
+                    .setSpeakerProfile(profile)
+                    .build(appContext);
+            Eagle eagle = pool.borrow();
+
+            final AtomicReference<Throwable> error = new AtomicReference<>();
+            final AtomicReference<Throwable> timedError = new AtomicReference<>();
+            Thread waiter = new Thread(() -> {
+                try {
+                    pool.borrow();
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            });
+            Thread timedWaiter = new Thread(() -> {
+                try {
+                    pool.borrow(1, TimeUnit.HOURS);
+                } catch (Throwable t) {
+                    timedError.set(t);
+                }
+            });
+            waiter.start();
+            timedWaiter.start();
+            for (int i = 0; i < 1000 && !(isWaiting(waiter) && isWaiting(timedWaiter)); i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(isWaiting(waiter));
+            assertTrue(isWaiting(timedWaiter));
+
+            pool.delete();
+            waiter.join(10000);
+            timedWaiter.join(10000);
+            assertFalse(waiter.isAlive());
+            assertFalse(timedWaiter.isAlive());
+            assertTrue(error.get() instanceof EagleInvalidStateException);
+            assertTrue(timedError.get() instanceof EagleInvalidStateException);
+
+            boolean didFail = false;
+            try {
+                pool.release(eagle);
+            } catch (EagleInvalidStateException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+            assertEquals(0, pool.getNumAvailable());
+        }
+
+        private static boolean isWaiting(Thread thread) {
+            Thread.State state = thread.getState();
+            return state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING;
+        }
+
+        @Test
+        public void testEagleProcessAfterDelete() throws Exception {
+            Eagle eagle = new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath)
+                    .setSpeakerProfile(profile)
+                    .build(appContext);
+
+            eagle.delete();
+            eagle.delete();
+
+            boolean didFail = false;
+            try {
+                eagle.process(new short[eagle.getFrameLength()]);
+            } catch (EagleInvalidStateException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+
+            didFail = false;
+            try {
+                eagle.reset();
+            } catch (EagleInvalidStateException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+        }
+
+        @Test
+        public void testEagleDeleteWhileProcessing() throws Exception {
+            final Eagle eagle = new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath)
+                    .setSpeakerProfile(profile)
+                    .build(appContext);
+
+            File audioFile = new File(testResourcesPath, testPath);
+            final short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+            final CountDownLatch started = new CountDownLatch(1);
+            final AtomicReference<Throwable> error = new AtomicReference<>();
+            Thread worker = new Thread(() -> {
+                short[] frame = new short[eagle.getFrameLength()];
+                float[] scores = new float[eagle.getNumSpeakers()];
+                try {
+                    for (int i = 0; ; i = (i + 1) % (pcm.length / frame.length)) {
+                        System.arraycopy(pcm, i * frame.length, frame, 0, frame.length);
+                        eagle.process(frame, scores);
+                        started.countDown();
+                    }
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            });
+            worker.start();
+
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            eagle.delete();
+            worker.join(10000);
+
+            assertFalse(worker.isAlive());
+            assertTrue(error.get() instanceof EagleInvalidStateException);
+        }
+
+        @Test
+        public void testEagleAddAndRemoveProfile() throws Exception {
+            EagleProfile imposterProfile = enrollImposterProfile();
+            Eagle eagle = buildEagle(profile);
+            Eagle both = buildEagle(profile, imposterProfile);
+            Eagle imposterOnly = buildEagle(imposterProfile);
+
+            File audioFile = new File(testResourcesPath, testPath);
+            short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+            try {
+                assertEquals(1, eagle.getNumSpeakers());
+
+                eagle.addProfile(accessKey, imposterProfile);
+                // Eagle keeps its own copy, so the caller's profile can go
+                imposterProfile.delete();
+                assertEquals(2, eagle.getNumSpeakers());
+                assertSameScores(both, eagle, pcm);
+
+                eagle.removeProfile(accessKey, 0);
+                assertEquals(1, eagle.getNumSpeakers());
+                assertSameScores(imposterOnly, eagle, pcm);
+
+                boolean didFail = false;
+                try {
+                    eagle.removeProfile(accessKey, 0);
+                } catch (EagleInvalidArgumentException e) {
+                    didFail = true;
+                }
+                assertTrue(didFail);
+
+                didFail = false;
+                try {
+                    eagle.removeProfile(accessKey, 1);
+                } catch (EagleInvalidArgumentException e) {
+                    didFail = true;
+                }
+                assertTrue(didFail);
+                assertEquals(1, eagle.getNumSpeakers());
+            } finally {
+                imposterOnly.delete();
+                both.delete();
+                eagle.delete();
+            }
+        }
+
+        @Test
+        public void testEagleProfileChangesReorderScores() throws Exception {
+            EagleProfile imposterProfile = enrollImposterProfile();
+            Eagle eagle = buildEagle(profile, imposterProfile);
+            Eagle reordered = buildEagle(imposterProfile, profile);
+            imposterProfile.delete();
+
+            File audioFile = new File(testResourcesPath, testPath);
+            short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+            try {
+                eagle.removeProfile(accessKey, 0);
+                eagle.addProfile(accessKey, profile);
+
+                assertEquals(2, eagle.getNumSpeakers());
+                assertSameScores(reordered, eagle, pcm);
+            } finally {
+                reordered.delete();
+                eagle.delete();
+            }
+        }
+
+        @Test
+        public void testEagleProfileChangesAfterDelete() throws Exception {
+            int numLive = Eagle.getNumLiveNativeObjects();
+            Eagle eagle = buildEagle(profile);
+            eagle.delete();
+            assertEquals(numLive, Eagle.getNumLiveNativeObjects());
+
+            boolean didFail = false;
+            try {
+                eagle.addProfile(accessKey, profile);
+            } catch (EagleInvalidStateException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+
+            didFail = false;
+            try {
+                eagle.removeProfile(accessKey, 0);
+            } catch (EagleInvalidStateException e) {
+                didFail = true;
+            }
+            assertTrue(didFail);
+
+            assertEquals(0, eagle.getNumSpeakers());
+            assertEquals(numLive, Eagle.getNumLiveNativeObjects());
+        }
+
+        private Eagle buildEagle(EagleProfile... speakerProfiles) throws EagleException {
+            return new Eagle.Builder()
+                    .setAccessKey(accessKey)
+                    .setModelPath(defaultModelPath)
+                    .setSpeakerProfiles(speakerProfiles)
+                    .build(appContext);
+        }
+
+        private EagleProfile enrollImposterProfile() throws Exception {
+            File audioFile = new File(testResourcesPath, imposterPath);
+            short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+
+            eagleProfiler.reset();
+            EagleProfilerEnrollResult result = null;
+            for (int i = 0; i < 10 && (result == null || result.getPercentage() < 100.0); i++) {
+                result = eagleProfiler.enroll(pcm);
+            }
+            return eagleProfiler.export();
+        }
+
+        private static void assertSameScores(Eagle expected, Eagle actual, short[] pcm) throws EagleException {
+            int numFrames = pcm.length / expected.getFrameLength();
+            float[] expectedScores = new float[numFrames * expected.getNumSpeakers()];
+            float[] actualScores = new float[numFrames * actual.getNumSpeakers()];
+            expected.processFrames(pcm, 0, numFrames, expectedScores);
+            actual.processFrames(pcm, 0, numFrames, actualScores);
+            assertArrayEquals(expectedScores, actualScores, 0);
+        }
+
+        @Test
+        public void testProfileStorePutGetRemove() throws Exception {
+            File storeFile = newStoreFile("basic.db");
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                store.put("alice", profile);
+                assertTrue(store.contains("alice"));
+                assertEquals(1, store.size());
+                assertStoredBytes(store, "alice", profile.getBytes());
+                assertNull(store.get("bob"));
+
+                assertTrue(store.remove("alice"));
+                assertFalse(store.remove("alice"));
+                assertFalse(store.contains("alice"));
+                assertEquals(0, store.size());
+            }
+        }
+
+        @Test
+        public void testProfileStoreAppendsPastMapping() throws Exception {
+            File storeFile = newStoreFile("append.db");
+            int numProfiles = 500;
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                for (int i = 0; i < numProfiles; i++) {
+                    try (EagleProfile variant = profileVariant(i)) {
+                        store.put("speaker" + i, variant);
+                    }
+                    // reads the record just appended, past the end of the current mapping
+                    assertStoredBytes(store, "speaker" + i, variantBytes(i));
+                    assertStoredBytes(store, "speaker" + (i / 2), variantBytes(i / 2));
+                }
+                assertLoadAll(store, numProfiles);
+            }
+
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                assertEquals(numProfiles, store.size());
+                assertLoadAll(store, numProfiles);
+            }
+        }
+
+        @Test
+        public void testProfileStoreDuplicateIds() throws Exception {
+            File storeFile = newStoreFile("duplicates.db");
+            long numDeletedBytes;
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                try (EagleProfile first = profileVariant(1); EagleProfile second = profileVariant(2)) {
+                    store.put("alice", first);
+                    store.put("alice", second);
+                }
+                assertEquals(1, store.size());
+                assertStoredBytes(store, "alice", variantBytes(2));
+                numDeletedBytes = store.getNumDeletedBytes();
+                assertTrue(numDeletedBytes > 0);
+            }
+
+            // simulate an interrupted overwrite: the first record is never marked deleted
+            try (RandomAccessFile raf = new RandomAccessFile(storeFile, "rw")) {
+                raf.seek(STORE_FIRST_RECORD_OFFSET + 4);
+                raf.write(1);
+            }
+
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                assertEquals(1, store.size());
+                assertEquals(numDeletedBytes, store.getNumDeletedBytes());
+                assertStoredBytes(store, "alice", variantBytes(2));
+
+                Map<String, EagleProfile> profiles = store.loadAll();
+                assertEquals(1, profiles.size());
+                assertArrayEquals(variantBytes(2), profiles.get("alice").getBytes());
+                profiles.get("alice").delete();
+
+                store.compact();
+                assertEquals(0, store.getNumDeletedBytes());
+                assertStoredBytes(store, "alice", variantBytes(2));
+            }
+        }
+
+        @Test
+        public void testProfileStoreRecoversTornRecord() throws Exception {
+            File storeFile = newStoreFile("torn.db");
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                store.put("alice", profile);
+            }
+            long aliceEnd = storeFile.length();
+
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                store.put("bob", profile);
+            }
+
+            // cut the last record short, as an interrupted write would
+            try (RandomAccessFile raf = new RandomAccessFile(storeFile, "rw")) {
+                raf.setLength(raf.length() - 3);
+            }
+
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                assertEquals(aliceEnd, storeFile.length());
+                assertTrue(store.contains("alice"));
+                assertFalse(store.contains("bob"));
+                assertStoredBytes(store, "alice", profile.getBytes());
+
+                store.put("bob", profile);
+                assertStoredBytes(store, "bob", profile.getBytes());
+            }
+        }
+
+        @Test
+        public void testProfileStoreDiscardsFailedPut() throws Exception {
+            File storeFile = newStoreFile("failed.db");
+            EagleProfile failing = new EagleProfile(profile.getBytes()) {
+                @Override
+                public int writeTo(WritableByteChannel channel) throws IOException {
+                    // leave part of the record behind, as a full disk would
+                    channel.write(ByteBuffer.wrap(new byte[3]));
+                    throw new IOException("Injected write failure");
+                }
+            };
+
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                store.put("alice", profile);
+                long aliceEnd = storeFile.length();
+
+                boolean didFail = false;
+                try {
+                    store.put("bob", failing);
+                } catch (EagleIOException e) {
+                    didFail = true;
+                }
+                assertTrue(didFail);
+                assertEquals(aliceEnd, storeFile.length());
+                assertFalse(store.contains("bob"));
+
+                store.put("carol", profile);
+                assertStoredBytes(store, "carol", profile.getBytes());
+            } finally {
+                failing.delete();
+            }
+
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                assertEquals(2, store.size());
+                assertStoredBytes(store, "alice", profile.getBytes());
+                assertStoredBytes(store, "carol", profile.getBytes());
+            }
+        }
+
+        @Test
+        public void testProfileStoreCompact() throws Exception {
+            File storeFile = newStoreFile("compact.db");
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                try (EagleProfile first = profileVariant(1);
+                        EagleProfile second = profileVariant(2);
+                        EagleProfile third = profileVariant(3)) {
+                    store.put("alice", first);
+                    store.put("bob", second);
+                    store.put("alice", third);
+                }
+                assertTrue(store.remove("bob"));
+
+                long numDeletedBytes = store.getNumDeletedBytes();
+                long length = storeFile.length();
+                store.compact();
+
+                assertEquals(length - numDeletedBytes, storeFile.length());
+                assertEquals(0, store.getNumDeletedBytes());
+                assertFalse(new File(storeFile.getPath() + ".tmp").exists());
+                assertEquals(1, store.size());
+                assertFalse(store.contains("bob"));
+                assertStoredBytes(store, "alice", variantBytes(3));
+
+                store.put("carol", profile);
+                assertStoredBytes(store, "carol", profile.getBytes());
+            }
+
+            try (EagleProfileStore store = EagleProfileStore.open(storeFile)) {
+                assertEquals(2, store.size());
+                assertStoredBytes(store, "alice", variantBytes(3));
+                assertStoredBytes(store, "carol", profile.getBytes());
+            }
+        }
+
+        private File newStoreFile(String name) {
+            File storeFile = new File(appContext.getFilesDir(), name);
+            storeFile.delete();
+            return storeFile;
+        }
+
+        /**
+         * The store treats profiles as opaque bytes, so variants only need to differ from each other.
+         */
+        private byte[] variantBytes(int index) {
+            byte[] bytes = profile.getBytes();
+            for (int i = 0; i < 4; i++) {
+                bytes[bytes.length - 1 - i] = (byte) (index >> (i * 8));
+            }
+            return bytes;
+        }
+
+        private EagleProfile profileVariant(int index) {
+            return new EagleProfile(variantBytes(index));
+        }
+
+        private void assertLoadAll(EagleProfileStore store, int numProfiles) throws EagleException {
+            Map<String, EagleProfile> profiles = store.loadAll();
+            assertEquals(numProfiles, profiles.size());
+            int i = 0;
+            for (Map.Entry<String, EagleProfile> entry : profiles.entrySet()) {
+                assertEquals("speaker" + i, entry.getKey());
+                assertArrayEquals(variantBytes(i), entry.getValue().getBytes());
+                entry.getValue().delete();
+                i++;
+            }
+        }
+
+        private static void assertStoredBytes(
+                EagleProfileStore store,
+                String speakerId,
+                byte[] expected) throws EagleException {
+            try (EagleProfile stored = store.get(speakerId)) {
+                assertNotNull(stored);
+                assertArrayEquals(expected, stored.getBytes());
+            }
+        }
+
         @Test
         public void testEagleProcessImposter() throws Exception {
             Eagle eagle = new Eagle.Builder()
@@ -135,4 +135,46 @@ public class PerformanceTest extends BaseTest {
                 avgSec <= procPerformanceThresholdSec
         );
     }
+
+    @Test
+    public void testResamplerPerformance() throws Exception {
+        final int inputSampleRate = 48000;
+        final int chunkLength = inputSampleRate / 100;
+        final int numSeconds = 10;
+
+        EagleResampler resampler = new EagleResampler(inputSampleRate, 16000);
+
+        File audioFile = new File(testResourcesPath, testPath);
+        short[] pcm = readAudioFile(audioFile.getAbsolutePath());
+        short[] input = new short[inputSampleRate * numSeconds];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = pcm[i % pcm.length];
+        }
+        short[] output = new short[resampler.getMaxOutputLength(chunkLength)];
+
+        long totalNSec = 0;
+        for (int i = 0; i < numTestIterations + 1; i++) {
+            resampler.reset();
+            long before = System.nanoTime();
+            for (int j = 0; j + chunkLength <= input.length; j += chunkLength) {
+                resampler.process(input, j, chunkLength, output, 0);
+            }
+            long after = System.nanoTime();
+
+            // throw away first run to account for cold start
+            if (i > 0) {
+                totalNSec += (after - before);
+            }
+        }
+
+        double avgSec = (totalNSec / (double) numTestIterations) * 1e-9;
+        double realTimeFactor = numSeconds / avgSec;
+        assertTrue(
+                String.format(
+                        "Expected resampling to run faster than real time on one core, got %.1fx (%.0f samples/s)",
+                        realTimeFactor,
+                        input.length / avgSec),
+                realTimeFactor > 1
+        );
+    }
 }
@@ -21,6 +21,7 @@ import android.media.AudioFormat;
 import android.media.AudioRecord;
 import android.media.MediaRecorder;
 import android.os.Bundle;
+import android.os.Environment;
 import android.os.Process;
 import android.view.View;
 import android.widget.LinearLayout;
@@ -35,6 +36,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.app.ActivityCompat;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -58,7 +61,6 @@ public class MainActivity extends AppCompatActivity {
     private float[] smoothScores;
 
     private final boolean enableDump = false;
-    private AudioDump eagleDump;
 
     private void setUIState(UIState state) {
         currentState = state;
@@ -136,8 +138,6 @@ public class MainActivity extends AppCompatActivity {
         toolbar.setTitleTextColor(Color.WHITE);
         setSupportActionBar(toolbar);
 
-        eagleDump = new AudioDump(getApplicationContext(), "eagle_demo.wav");
-
         try {
             EagleProfiler.Builder builder = new EagleProfiler.Builder()
                     .setAccessKey(ACCESS_KEY);
@@ -351,47 +351,32 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    @SuppressLint("DefaultLocale")
-    private void enrollSpeaker(short[] pcmData) {
-        try {
-            EagleProfilerEnrollResult result = eagleProfiler.enroll(pcmData);
-
-            if (result.getFeedback() == EagleProfilerEnrollFeedback.AUDIO_OK && result.getPercentage() == 100) {
-                EagleProfile profile = eagleProfiler.export();
-                profiles.add(profile);
-
-                runOnUiThread(() -> {
-                    if (progressBarIds.size() == 0) {
-                        return;
-                    }
+    private void showEnrollProgress(EagleProfilerEnrollResult result) {
+        String finalMessage = String.format(
+                "%s. Keep speaking until the enrollment percentage reaches 100%%.",
+                getFeedback(result.getFeedback()));
+        runOnUiThread(() -> {
+            if (progressBarIds.size() == 0) {
+                return;
+            }
 
-                    ProgressBar progressBar = findViewById(progressBarIds.get(progressBarIds.size() - 1));
-                    progressBar.setProgress(Math.round(result.getPercentage()));
+            ProgressBar progressBar = findViewById(progressBarIds.get(progressBarIds.size() - 1));
+            progressBar.setProgress(Math.round(result.getPercentage()));
 
-                    ToggleButton enrollButton = findViewById(R.id.enrollButton);
-                    enrollButton.performClick();
-                });
+            TextView recordingTextView = findViewById(R.id.recordingTextView);
+            recordingTextView.setText(finalMessage);
+        });
+    }
 
-                microphoneReader.stop.set(true);
-            } else {
-                String finalMessage = String.format(
-                        "%s. Keep speaking until the enrollment percentage reaches 100%%.",
-                        getFeedback(result.getFeedback()));
-                runOnUiThread(() -> {
-                    if (progressBarIds.size() == 0) {
-                        return;
-                    }
+    private void finishEnrollment(EagleEnrollmentSession session) throws EagleException {
+        profiles.add(session.finish());
 
-                    ProgressBar progressBar = findViewById(progressBarIds.get(progressBarIds.size() - 1));
-                    progressBar.setProgress(Math.round(result.getPercentage()));
+        runOnUiThread(() -> {
+            ToggleButton enrollButton = findViewById(R.id.enrollButton);
+            enrollButton.performClick();
+        });
 
-                    TextView recordingTextView = findViewById(R.id.recordingTextView);
-                    recordingTextView.setText(finalMessage);
-                });
-            }
-        } catch (EagleException e) {
-            runOnUiThread(() -> displayError("Failed to enroll\n" + e));
-        }
+        microphoneReader.stop.set(true);
     }
 
     private enum UIState {
@@ -447,6 +432,34 @@ public class MainActivity extends AppCompatActivity {
             stopped.set(false);
         }
 
+        private PcmRecorder startDump(String filename, int sampleRate) {
+            if (!enableDump) {
+                return null;
+            }
+
+            File outputFile = new File(
+                    Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS),
+                    filename);
+            try {
+                return PcmRecorder.start(outputFile, sampleRate);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+
+        private void stopDump(PcmRecorder dump) {
+            if (dump == null) {
+                return;
+            }
+
+            try {
+                dump.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
         @SuppressLint("DefaultLocale")
         private void enroll() throws EagleException {
             final int bufferSize = AudioRecord.getMinBufferSize(
@@ -458,9 +471,14 @@ public class MainActivity extends AppCompatActivity {
 
             short[] buffer = new short[bufferSize];
 
-            eagleProfiler.reset();
-            int numEnrollFrames = (eagleProfiler.getMinEnrollSamples() / bufferSize) + 1;
-            short[] pcmData = new short[bufferSize * numEnrollFrames];
+            EagleEnrollmentSession session = new EagleEnrollmentSession(
+                    eagleProfiler,
+                    MainActivity.this::showEnrollProgress);
+            session.reset();
+
+            PcmRecorder dump = startDump(
+                    String.format("eagle_enroll_speaker_%d.wav", profiles.size()),
+                    eagleProfiler.getSampleRate());
 
             try {
                 audioRecord = new AudioRecord(
@@ -472,35 +490,32 @@ public class MainActivity extends AppCompatActivity {
                 audioRecord.startRecording();
 
                 while (!stop.get()) {
-                    int i = 0;
-                    while (i < numEnrollFrames) {
-                        if (stop.get()) {
-                            break;
-                        }
-                        if (audioRecord.read(buffer, 0, buffer.length) == buffer.length) {
-                            System.arraycopy(buffer, 0, pcmData, i * buffer.length, buffer.length);
-                            if (enableDump) {
-                                Executors.newSingleThreadExecutor().submit((Callable<Void>) () -> {
-                                    eagleDump.add(buffer);
-                                    return null;
-                                });
-                            }
+                    int numRead = audioRecord.read(buffer, 0, buffer.length);
+                    if (numRead <= 0) {
+                        continue;
+                    }
+
+                    if (dump != null) {
+                        dump.write(buffer, 0, numRead);
+                    }
+                    try {
+                        session.feed(buffer, 0, numRead);
+                        if (session.isComplete()) {
+                            finishEnrollment(session);
                         }
-                        i++;
+                    } catch (EagleException e) {
+                        runOnUiThread(() -> displayError("Failed to enroll\n" + e));
                     }
-                    enrollSpeaker(pcmData);
                 }
 
                 audioRecord.stop();
-                if (enableDump) {
-                    eagleDump.saveFile(String.format("eagle_enroll_speaker_%d.wav", profiles.size()));
-                }
             } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
                 throw new EagleException(e);
             } finally {
                 if (audioRecord != null) {
                     audioRecord.release();
                 }
+                stopDump(dump);
 
                 stopped.set(true);
                 stopped.notifyAll();
@@ -518,6 +533,8 @@ public class MainActivity extends AppCompatActivity {
 
             short[] buffer = new short[eagle.getFrameLength()];
 
+            PcmRecorder dump = startDump("eagle_test.wav", eagle.getSampleRate());
+
             try {
                 audioRecord = new AudioRecord(
                         MediaRecorder.AudioSource.MIC,
@@ -545,25 +562,20 @@ public class MainActivity extends AppCompatActivity {
                                 progressBar.setProgress(Math.round(smoothScores[i] * 100));
                             }
                         });
-                        if (enableDump) {
-                            Executors.newSingleThreadExecutor().submit((Callable<Void>) () -> {
-                                eagleDump.add(buffer);
-                                return null;
-                            });
+                        if (dump != null) {
+                            dump.write(buffer, 0, buffer.length);
                         }
                     }
                 }
 
                 audioRecord.stop();
-                if (enableDump) {
-                    eagleDump.saveFile("eagle_test.wav");
-                }
             } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
                 throw new EagleException(e);
             } finally {
                 if (audioRecord != null) {
                     audioRecord.release();
                 }
+                stopDump(dump);
 
                 stopped.set(true);
                 stopped.notifyAll();
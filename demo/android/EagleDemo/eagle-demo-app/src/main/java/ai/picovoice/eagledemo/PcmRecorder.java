@@ -0,0 +1,197 @@
+/*
+    Copyright 2023 Picovoice Inc.
+
+    You may not use this file except in compliance with the license. A copy of the license is
+    located in the "LICENSE" file accompanying this source.
+
+    Unless required by applicable law or agreed to in writing, software distributed under the
+    License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+    express or implied. See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+
+package ai.picovoice.eagledemo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records 16-bit mono PCM to a WAV file without blocking the audio thread. The audio thread copies samples into a
+ * lock-free single-producer single-consumer ring, and one writer thread drains the ring to the file through a
+ * `FileChannel`. The WAV header is written up front with empty sizes and patched in place on `close()`. If the writer
+ * falls behind and the ring fills up, new samples are dropped rather than waited for.
+ */
+public class PcmRecorder {
+    private static final int HEADER_SIZE = 44;
+    private static final int RING_CAPACITY = 1 << 18;
+    private static final int WRITE_CHUNK_SAMPLES = 8192;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final FileChannel channel;
+    private final short[] ring = new short[RING_CAPACITY];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong numDroppedSamples = new AtomicLong();
+    private final Thread writerThread;
+
+    private volatile boolean closing = false;
+    private volatile boolean writerIdle = false;
+    private volatile IOException writeError = null;
+    private long numWrittenBytes = 0;
+
+    private PcmRecorder(FileChannel channel, int sampleRate) throws IOException {
+        this.channel = channel;
+        channel.truncate(0);
+        writeFully(createHeader(sampleRate), 0);
+
+        writerThread = new Thread(this::drain, "PcmRecorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public static PcmRecorder start(File file, int sampleRate) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            return new PcmRecorder(raf.getChannel(), sampleRate);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Queues samples for writing. Called from the audio thread only; never blocks.
+     *
+     * @return `false` if the ring was full and the samples were dropped.
+     * @throws IllegalArgumentException if `offset` and `length` do not describe a range within `pcm`.
+     */
+    public boolean write(short[] pcm, int offset, int length) {
+        if (pcm == null || offset < 0 || length < 0 || length > pcm.length - offset) {
+            throw new IllegalArgumentException("Invalid audio range passed to PcmRecorder write.");
+        }
+
+        long t = tail.get();
+        if (length > RING_CAPACITY - (t - head.get())) {
+            numDroppedSamples.addAndGet(length);
+            return false;
+        }
+
+        int index = (int) (t & (RING_CAPACITY - 1));
+        int firstPart = Math.min(length, RING_CAPACITY - index);
+        System.arraycopy(pcm, offset, ring, index, firstPart);
+        System.arraycopy(pcm, offset + firstPart, ring, 0, length - firstPart);
+        tail.lazySet(t + length);
+
+        if (writerIdle) {
+            LockSupport.unpark(writerThread);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the remaining samples, patches the WAV header and closes the file.
+     */
+    public void close() throws IOException {
+        closing = true;
+        LockSupport.unpark(writerThread);
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        try {
+            if (writeError != null) {
+                throw writeError;
+            }
+
+            ByteBuffer sizes = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            sizes.putInt(0, (int) (numWrittenBytes + HEADER_SIZE - 8));
+            writeFully(sizes, 4);
+            sizes.clear();
+            sizes.putInt(0, (int) numWrittenBytes);
+            writeFully(sizes, 40);
+        } finally {
+            channel.close();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public long getNumDroppedSamples() {
+        return numDroppedSamples.get();
+    }
+
+    private void drain() {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(WRITE_CHUNK_SAMPLES * 2).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            while (true) {
+                long h = head.get();
+                long available = tail.get() - h;
+                if (available == 0) {
+                    if (closing) {
+                        return;
+                    }
+                    writerIdle = true;
+                    if (tail.get() == h && !closing) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    writerIdle = false;
+                    continue;
+                }
+
+                int numSamples = (int) Math.min(available, WRITE_CHUNK_SAMPLES);
+                chunk.clear();
+                for (int i = 0; i < numSamples; i++) {
+                    chunk.putShort(ring[(int) ((h + i) & (RING_CAPACITY - 1))]);
+                }
+                head.lazySet(h + numSamples);
+
+                chunk.flip();
+                writeFully(chunk, HEADER_SIZE + numWrittenBytes);
+                numWrittenBytes += numSamples * 2;
+            }
+        } catch (IOException e) {
+            writeError = e;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static ByteBuffer createHeader(int sampleRate) {
+        final int channels = 1;
+        final int bitsPerSample = 16;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'});
+        header.putInt(0);
+        header.put(new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        header.putInt(16);
+        header.putShort((short) 1);
+        header.putShort((short) channels);
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * channels * bitsPerSample / 8);
+        header.putShort((short) (channels * bitsPerSample / 8));
+        header.putShort((short) bitsPerSample);
+        header.put(new byte[]{'d', 'a', 't', 'a'});
+        header.putInt(0);
+        header.flip();
+        return header;
+    }
+}